@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the expectation that matches a call, given a number of expectations on the same method that
+ * differ only in their arguments.  Calls {@link Interception#intercept} directly, so that proxy overhead doesn't
+ * hide the cost of {@link GroupImpl#match}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpectationMatchingBenchmark {
+
+    public interface Service {
+        int compute(int x);
+    }
+
+    @Param({"1", "10", "100", "1000"})
+    public int expectations;
+
+    private MockImpl<Service> interception;
+    private InvocableAdapter compute;
+    private Object[] firstArgs;
+    private Object[] lastArgs;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        MoxieFlags flags = MoxieOptions.mergeWithDefaults(MoxieOptions.MOCK_DEFAULTS, MoxieOptions.NO_HISTORY);
+        interception = new MockImpl<Service>(Service.class, "stub", flags, null, null, null);
+        for (int i = 0; i < expectations; i++) {
+            interception.expect().andReturn(i).anyTimes().on().compute(i);
+        }
+        compute = MethodAdapter.forMethod(Service.class.getMethod("compute", Integer.TYPE));
+        firstArgs = new Object[]{0};
+        lastArgs = new Object[]{expectations - 1};
+    }
+
+    @Benchmark
+    public Object matchFirst() throws Throwable {
+        return interception.intercept(null, compute, firstArgs, null);
+    }
+
+    @Benchmark
+    public Object matchLast() throws Throwable {
+        return interception.intercept(null, compute, lastArgs, null);
+    }
+}
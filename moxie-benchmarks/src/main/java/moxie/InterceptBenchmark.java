@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a call to a stubbed method through each kind of proxy, from the call on the proxy to the stubbed value
+ * being returned.  Lives in package <code>moxie</code> so that it can pick the proxy factory, which
+ * {@link ProxyFactory#create(Class, Class[])} would otherwise choose for itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterceptBenchmark {
+
+    public interface Service {
+        int compute(int x);
+    }
+
+    public static class ServiceImpl implements Service {
+        public int compute(int x) {
+            return x;
+        }
+    }
+
+    @Param({"jdk", "javassist", "cglib"})
+    public String proxyFactory;
+
+    private Service stub;
+
+    @Setup
+    public void setUp() {
+        if ("jdk".equals(proxyFactory)) {
+            stub = createStub(Service.class, new JDKProxyFactory<Service>(Service.class, new Class[0]));
+        } else if ("javassist".equals(proxyFactory)) {
+            stub = createStub(ServiceImpl.class, new JavassistProxyFactory<ServiceImpl>(ServiceImpl.class, new Class[0]));
+        } else {
+            stub = createStub(ServiceImpl.class, new CGLIBProxyFactory<ServiceImpl>(ServiceImpl.class, new Class[0]));
+        }
+    }
+
+    private static <T extends Service> T createStub(Class<T> clazz, ProxyFactory<T> proxyFactory) {
+        // NO_HISTORY, so that the stub's memory use doesn't grow over the run
+        MoxieFlags flags = MoxieOptions.mergeWithDefaults(MoxieOptions.MOCK_DEFAULTS, MoxieOptions.NO_HISTORY);
+        MockImpl<T> interception = new MockImpl<T>(clazz, "stub", flags, null, null, null);
+        interception.expect().andReturn(42).anyTimes().on().compute(1);
+        return proxyFactory.createProxy(interception, null, null);
+    }
+
+    @Benchmark
+    public int intercept() {
+        return stub.compute(1);
+    }
+}
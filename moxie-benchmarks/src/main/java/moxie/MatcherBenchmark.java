@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of evaluating the matchers built by {@link MoxieMatchers}, without any of the surrounding mock machinery.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatcherBenchmark {
+
+    private Matcher eq;
+    private Matcher hasSubstring;
+    private Matcher matchesRegexp;
+    private Matcher eqIgnoreWhiteSpace;
+    private Matcher composite;
+    private Matcher range;
+    private Matcher set;
+    private Matcher aryEq;
+    private Matcher aryEqLarge;
+
+    private final String string = "the quick brown fox";
+    private final int[] array = new int[]{1, 2, 3, 4, 5, 6, 7, 8};
+    private final int[] equalArray = new int[]{1, 2, 3, 4, 5, 6, 7, 8};
+    private final byte[] buffer = new byte[64 * 1024];
+    private final byte[] equalBuffer = new byte[64 * 1024];
+
+    @Setup
+    public void setUp() {
+        eq = MatcherSyntax.singleMatcherExpression(String.class, MoxieMatchers.eq("the quick brown fox"));
+        hasSubstring = MatcherSyntax.singleMatcherExpression(String.class, MoxieMatchers.hasSubstring("brown"));
+        matchesRegexp = MatcherSyntax.singleMatcherExpression(String.class, MoxieMatchers.matchesRegexp("the .* fox"));
+        eqIgnoreWhiteSpace = MatcherSyntax.singleMatcherExpression(String.class, MoxieMatchers.eqIgnoreWhiteSpace("The  Quick Brown Fox "));
+        composite = MatcherSyntax.singleMatcherExpression(Integer.TYPE, MoxieMatchers.and(new int[]{MoxieMatchers.gt(0), MoxieMatchers.or(new int[]{MoxieMatchers.lt(10), MoxieMatchers.eq(42)})}));
+        range = MatcherSyntax.singleMatcherExpression(Integer.TYPE, MoxieMatchers.and(new int[]{MoxieMatchers.geq(0), MoxieMatchers.lt(10)}));
+        set = MatcherSyntax.singleMatcherExpression(Integer.TYPE, MoxieMatchers.or(new int[]{MoxieMatchers.eq(1), MoxieMatchers.eq(3), MoxieMatchers.eq(5), MoxieMatchers.eq(7)}));
+        aryEq = MatcherSyntax.singleMatcherExpression(int[].class, MoxieMatchers.aryEq(equalArray));
+        aryEqLarge = MatcherSyntax.singleMatcherExpression(byte[].class, MoxieMatchers.aryEq(equalBuffer));
+    }
+
+    @Benchmark
+    public boolean eq() {
+        return eq.matches(string);
+    }
+
+    @Benchmark
+    public boolean hasSubstring() {
+        return hasSubstring.matches(string);
+    }
+
+    @Benchmark
+    public boolean matchesRegexp() {
+        return matchesRegexp.matches(string);
+    }
+
+    @Benchmark
+    public boolean eqIgnoreWhiteSpace() {
+        return eqIgnoreWhiteSpace.matches(string);
+    }
+
+    @Benchmark
+    public boolean composite() {
+        return composite.matches(7);
+    }
+
+    @Benchmark
+    public boolean range() {
+        return range.matches(7);
+    }
+
+    @Benchmark
+    public boolean set() {
+        return set.matches(7);
+    }
+
+    @Benchmark
+    public boolean aryEq() {
+        return aryEq.matches(array);
+    }
+
+    @Benchmark
+    public boolean aryEqLarge() {
+        return aryEqLarge.matches(buffer);
+    }
+
+    @Benchmark
+    public Matcher aryEqLargeSetup() {
+        return MatcherSyntax.singleMatcherExpression(byte[].class, MoxieMatchers.aryEq(equalBuffer));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking up a live key in the weak identity maps, as the number of live keys grows.  Lookup time should
+ * stay roughly flat.  {@link ConcurrentWeakIdentityMap} is the one that finds the intercept for a proxy.
+ * <p>
+ * Lives in package <code>moxie</code> because the maps are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WeakIdentityMapBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int liveKeys;
+
+    @Param({"WeakIdentityMap", "ConcurrentWeakIdentityMap"})
+    public String implementation;
+
+    private Map<Object, Object> map;
+    private Object[] keys;
+    private int[] lookupOrder;
+    private int lookupIndex;
+
+    @Setup
+    public void setUp() {
+        map = "WeakIdentityMap".equals(implementation)
+                ? new WeakIdentityMap<Object, Object>()
+                : new ConcurrentWeakIdentityMap<Object, Object>();
+        keys = new Object[liveKeys];
+        for (int i = 0; i < liveKeys; i++) {
+            keys[i] = new Object();
+            map.put(keys[i], Integer.valueOf(i));
+        }
+        // Random order, so that we're not just walking the table in insertion order.
+        Random random = new Random(42);
+        lookupOrder = new int[1 << 16];
+        for (int i = 0; i < lookupOrder.length; i++) {
+            lookupOrder[i] = random.nextInt(liveKeys);
+        }
+    }
+
+    @Benchmark
+    public Object get() {
+        lookupIndex = (lookupIndex + 1) & (lookupOrder.length - 1);
+        return map.get(keys[lookupOrder[lookupIndex]]);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2013 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxiebenchmarks;
+
+import moxie.Moxie;
+import moxie.MoxieControl;
+import moxie.MoxieOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of matching the arguments of a call to a stubbed method.  Run with <code>-prof gc</code> to see
+ * allocations per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArgumentMatchingBenchmark {
+
+    public interface Service {
+        String lookup(String key, int version);
+    }
+
+    private Service equalsStub;
+    private Service anyStub;
+
+    @Setup
+    public void setUp() {
+        // A fresh control, so that the thread-local one used by tests isn't disturbed.
+        // Mocks are NO_HISTORY so that their memory use doesn't grow over the run, and so that recording
+        // invocations doesn't drown out what we're measuring.
+        MoxieControl control = Moxie.newControl();
+        equalsStub = control.mock(Service.class, MoxieOptions.NO_HISTORY);
+        control.stub(equalsStub).willReturn("value").on().lookup("key", 42);
+        anyStub = control.mock(Service.class, MoxieOptions.NO_HISTORY);
+        control.stub(anyStub).willReturn("value").on().lookup(Moxie.anyString(), Moxie.anyInt());
+    }
+
+    @Benchmark
+    public String equalsMatchers() {
+        return equalsStub.lookup("key", 42);
+    }
+
+    @Benchmark
+    public String anyMatchers() {
+        return anyStub.lookup("key", 42);
+    }
+}
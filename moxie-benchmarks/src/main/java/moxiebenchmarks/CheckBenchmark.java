@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxiebenchmarks;
+
+import moxie.Moxie;
+import moxie.MoxieControl;
+import moxie.MoxieOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@link Moxie#check(Object) check()} against a mock with a long invocation history, spread over several
+ * methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckBenchmark {
+
+    @Param({"1000", "100000"})
+    public int invocations;
+
+    private MoxieControl control;
+    private List<String> mock;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        control = Moxie.newControl();
+        mock = control.mock(List.class, MoxieOptions.PERMISSIVE);
+        for (int i = 0; i < invocations; i++) {
+            switch (i % 4) {
+                case 0:
+                    mock.add("item");
+                    break;
+                case 1:
+                    mock.get(i % 10);
+                    break;
+                case 2:
+                    mock.contains("other item");
+                    break;
+                default:
+                    mock.indexOf("item");
+            }
+        }
+    }
+
+    @Benchmark
+    public void checkRecordedCall() {
+        control.check(mock).atLeastOnce().got().get(3);
+    }
+
+    @Benchmark
+    public void checkAbsentCall() {
+        control.check(mock).never().got().remove("item");
+    }
+}
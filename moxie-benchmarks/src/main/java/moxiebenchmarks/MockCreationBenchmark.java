@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxiebenchmarks;
+
+import moxie.Moxie;
+import moxie.MoxieControl;
+import moxie.MoxieOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating a mock, once its proxy class has been generated.  Each mock gets a fresh control, so that
+ * controls don't accumulate mocks over the run - much as a property-based test creating throwaway mocks would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MockCreationBenchmark {
+
+    public interface Service {
+        String lookup(String key);
+    }
+
+    public static class ServiceImpl implements Service {
+        public String lookup(String key) {
+            return key;
+        }
+    }
+
+    @Benchmark
+    public MoxieControl newControl() {
+        return Moxie.newControl();
+    }
+
+    @Benchmark
+    public Service interfaceMock() {
+        return Moxie.newControl().mock(Service.class);
+    }
+
+    @Benchmark
+    public Service interfaceMockWithOptions() {
+        return Moxie.newControl().mock(Service.class, MoxieOptions.PERMISSIVE, MoxieOptions.NO_HISTORY);
+    }
+
+    @Benchmark
+    public Service classMock() {
+        return Moxie.newControl().mock(ServiceImpl.class);
+    }
+
+    @Benchmark
+    public Service spy() {
+        return Moxie.newControl().spy(new ServiceImpl());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxiebenchmarks;
+
+import moxie.Moxie;
+import moxie.MoxieControl;
+import moxie.MoxieOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.powermock.core.MockGateway;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a call to a stubbed static method.  Classes prepared by PowerMock's class loader call into
+ * {@link MockGateway} at the start of every method; rather than set up that class loader inside JMH, this calls
+ * {@link MockGateway} the way the instrumented method would, so everything from there on - PowerMock's lookup of
+ * the replacement, and Moxie's dispatch to the class mock - is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PowerMockDispatchBenchmark {
+
+    public static class Greeter {
+        public static String greet(String name) {
+            return "hello " + name;
+        }
+    }
+
+    private final Object[] args = new Object[]{"world"};
+    private final Class<?>[] signature = new Class<?>[]{String.class};
+
+    @Setup
+    public void setUp() {
+        // NO_HISTORY, so that the class mock's memory use doesn't grow over the run
+        MoxieControl control = Moxie.newControl();
+        control.expect(Greeter.class, MoxieOptions.NO_HISTORY).anyTimes().willReturn("stubbed").on("greet", "world");
+    }
+
+    @Benchmark
+    public Object staticCall() throws Throwable {
+        return MockGateway.methodCall(Greeter.class, "greet", args, signature, "java.lang.String");
+    }
+}
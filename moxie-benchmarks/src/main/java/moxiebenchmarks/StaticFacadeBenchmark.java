@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxiebenchmarks;
+
+import moxie.Moxie;
+import moxie.MoxieControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of expectation-heavy test setup written against the static {@link Moxie} methods, which work on the current
+ * thread's control, compared with the same code written against an explicit {@link MoxieControl}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StaticFacadeBenchmark {
+
+    private MoxieControl control;
+    private List<String> staticMock;
+    private List<String> controlMock;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        control = Moxie.newControl();
+        staticMock = Moxie.mock(List.class);
+        controlMock = control.mock(List.class);
+    }
+
+    @Benchmark
+    public int staticFacade() {
+        Moxie.expect(staticMock).andReturn(3).on().size();
+        Moxie.expect(staticMock).andReturn("one").on().get(1);
+        Moxie.expect(staticMock).andReturn(true).on().contains("two");
+        Moxie.stub(staticMock).andReturn(-1).on().indexOf("three");
+        int result = staticMock.size() + staticMock.get(1).length() + staticMock.indexOf("three");
+        staticMock.contains("two");
+        Moxie.verifyAndReset(staticMock);
+        return result;
+    }
+
+    @Benchmark
+    public int explicitControl() {
+        control.expect(controlMock).andReturn(3).on().size();
+        control.expect(controlMock).andReturn("one").on().get(1);
+        control.expect(controlMock).andReturn(true).on().contains("two");
+        control.stub(controlMock).andReturn(-1).on().indexOf("three");
+        int result = controlMock.size() + controlMock.get(1).length() + controlMock.indexOf("three");
+        controlMock.contains("two");
+        control.verifyAndReset(controlMock);
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import java.util.AbstractList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free, append-only list, safe for concurrent use by any number of writers and readers.
+ * <p>
+ * Elements are stored in chunks of doubling size, so existing elements are never copied when the list grows.
+ * A writer first claims a slot, then fills it; the list only becomes visible up to the first slot that has
+ * not yet been filled, so readers never see gaps.  Any writer may advance the visible size on behalf of
+ * others, so no thread ever waits on another.
+ * <p>
+ * Null elements are not permitted.  Removal is not supported.
+ */
+class AppendOnlyList<E> extends AbstractList<E> {
+
+    private static final int FIRST_CHUNK_BITS = 4;
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+
+    // chunk n holds FIRST_CHUNK_SIZE << n elements, so 28 chunks comfortably exceeds Integer.MAX_VALUE elements
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks = new AtomicReferenceArray<AtomicReferenceArray<E>>(32 - FIRST_CHUNK_BITS);
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    @Override
+    public boolean add(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        int index = claimed.getAndIncrement();
+        if (index < 0) {
+            throw new IllegalStateException("list is full");
+        }
+        slotsFor(index, true).set(offsetOf(index), e);
+        publish();
+        return true;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= published.get()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + published.get());
+        }
+        return slotsFor(index, false).get(offsetOf(index));
+    }
+
+    @Override
+    public int size() {
+        return published.get();
+    }
+
+    private void publish() {
+        int p;
+        while ((p = published.get()) < claimed.get()) {
+            AtomicReferenceArray<E> slots = slotsFor(p, false);
+            if (slots == null || slots.get(offsetOf(p)) == null) {
+                // some other writer hasn't filled its slot yet - it'll publish this and any later slots itself
+                return;
+            }
+            published.compareAndSet(p, p + 1);
+        }
+    }
+
+    private AtomicReferenceArray<E> slotsFor(int index, boolean create) {
+        int chunkIndex = chunkOf(index);
+        AtomicReferenceArray<E> slots = chunks.get(chunkIndex);
+        if (slots == null && create) {
+            chunks.compareAndSet(chunkIndex, null, new AtomicReferenceArray<E>(FIRST_CHUNK_SIZE << chunkIndex));
+            slots = chunks.get(chunkIndex);
+        }
+        return slots;
+    }
+
+    private static int chunkOf(int index) {
+        return (31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_BITS) + 1));
+    }
+
+    private static int offsetOf(int index) {
+        return index + FIRST_CHUNK_SIZE - (FIRST_CHUNK_SIZE << chunkOf(index));
+    }
+}
@@ -22,6 +22,8 @@
 
 package moxie;
 
+import net.sf.cglib.core.ClassGenerator;
+import net.sf.cglib.core.DefaultGeneratorStrategy;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -52,14 +54,37 @@ class CGLIBProxyFactory<T> extends ConcreteTypeProxyFactory<T> {
         e.setUseFactory(true);
         e.setUseCache(true);
         e.setCallbackType(MethodInterceptor.class);
-        return e.createClass();
+
+        ProxyClassCache cache = ProxyClassCache.getInstance();
+        String cacheKey = cache != null ? cache.keyFor(Enhancer.class, clazz, ancillaryTypes) : null;
+        if (cacheKey == null) {
+            return e.createClass();
+        }
+        ProxyClassCache.CachedClass cached = cache.load(cacheKey, e.getClassLoader(), clazz.getProtectionDomain());
+        if (cached != null) {
+            return cached.definedClass;
+        }
+        final byte[][] bytecode = new byte[1][];
+        e.setStrategy(new DefaultGeneratorStrategy() {
+            @Override
+            public byte[] generate(ClassGenerator classGenerator) throws Exception {
+                bytecode[0] = super.generate(classGenerator);
+                return bytecode[0];
+            }
+        });
+        Class result = e.createClass();
+        // no bytecode if CGLIB already had this class in its own cache
+        if (bytecode[0] != null) {
+            cache.store(cacheKey, result.getName(), bytecode[0], null);
+        }
+        return result;
     }
 
     @Override
     protected void decorateInstance(T result, final MethodIntercept methodIntercept) {
         MethodInterceptor methodInterceptor = new MethodInterceptor() {
             public Object intercept(final Object proxy, Method method, Object[] args, final MethodProxy superProxy) throws Throwable {
-                return methodIntercept.intercept(proxy, new MethodAdapter(method), args, new MethodIntercept.SuperInvoker() {
+                return methodIntercept.intercept(proxy, MethodAdapter.forMethod(method), args, new MethodIntercept.SuperInvoker() {
                     public Object invokeSuper(Object[] superArgs) throws Throwable {
                         return superProxy.invokeSuper(proxy, superArgs);
                     }
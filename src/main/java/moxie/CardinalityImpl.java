@@ -24,8 +24,9 @@ package moxie;
 
 import org.hamcrest.Description;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class CardinalityImpl<T> implements Cardinality<T> {
 
@@ -33,8 +34,8 @@ class CardinalityImpl<T> implements Cardinality<T> {
     private Integer minTimes = null;
     private Integer maxTimes = null;
     private boolean frozen;
-    private int count;
-    private List<Runnable> satisfactions = null;
+    private final AtomicInteger count = new AtomicInteger();
+    private final Queue<Runnable> satisfactions = new ConcurrentLinkedQueue<Runnable>();
 
     CardinalityImpl(T returnValue) {
         this.returnValue = returnValue;
@@ -125,32 +126,58 @@ class CardinalityImpl<T> implements Cardinality<T> {
     }
 
     boolean isViable() {
-        return (maxTimes == null || count < maxTimes);
+        return (maxTimes == null || count.get() < maxTimes);
     }
 
     boolean incrementCount() {
-        boolean result = isMatch(++count);
-        if (result && satisfactions != null) {
-            for (Runnable satisfaction : satisfactions) {
-                satisfaction.run();
+        return afterIncrement(count.incrementAndGet());
+    }
+
+    /**
+     * Atomically increments the count, provided doing so wouldn't exceed the maximum.
+     *
+     * @return <code>false</code> if the count was already at the maximum
+     */
+    boolean incrementCountIfViable() {
+        int current;
+        do {
+            current = count.get();
+            if (maxTimes != null && current >= maxTimes) {
+                return false;
             }
-            satisfactions = null;
+        } while (!count.compareAndSet(current, current + 1));
+        afterIncrement(current + 1);
+        return true;
+    }
+
+    private boolean afterIncrement(int newCount) {
+        boolean result = isMatch(newCount);
+        if (result) {
+            runSatisfactions();
         }
         return result;
     }
 
     boolean isSatisfied() {
-        return isMatch(count);
+        return isMatch(count.get());
     }
 
     void whenCardinalitySatisfied(Runnable satisfaction) {
-        if (isMatch(count)) {
+        if (isMatch(count.get())) {
             satisfaction.run();
         } else {
-            if (satisfactions == null) {
-                satisfactions = new ArrayList<Runnable>();
-            }
             satisfactions.add(satisfaction);
+            // another thread may have satisfied the cardinality (and run the queue) before we got our satisfaction in
+            if (isMatch(count.get())) {
+                runSatisfactions();
+            }
+        }
+    }
+
+    private void runSatisfactions() {
+        Runnable satisfaction;
+        while ((satisfaction = satisfactions.poll()) != null) {
+            satisfaction.run();
         }
     }
 
@@ -191,6 +218,7 @@ class CardinalityImpl<T> implements Cardinality<T> {
     }
 
     public void describeCount(Description description) {
+        int count = this.count.get();
         if (count == 0) {
             description.appendText("never");
         } else if (count == 1) {
@@ -64,19 +64,28 @@ abstract class CheckImpl<C extends CheckImpl<C,I,R>, I extends Interception, R>
         @SuppressWarnings("unchecked")
         Matcher argsMatcher = new IsArray(argMatchers);
 
-        int cursor = 0;
+        // group cursors count invocations dropped from a RECENT_HISTORY mock's history; our indexes don't
+        long discarded = invocations instanceof RecentHistoryList ? ((RecentHistoryList) invocations).getDiscardedCount() : 0;
+        long groupCursor = 0;
         if (groups != null) {
             for (GroupImpl group : groups) {
-                if (group.getCheckCursor() > cursor) {
-                    cursor = group.getCheckCursor();
+                if (group.getCheckCursor() > groupCursor) {
+                    groupCursor = group.getCheckCursor();
                 }
             }
         }
+        int cursor = (int) Math.min(Math.max(groupCursor - discarded, 0), invocations.size());
 
         Integer lastMatch = null;
 
-        for (; cursor < invocations.size(); cursor++) {
-            final Invocation invocation = invocations.get(cursor);
+        // only visit invocations of the method being checked, if this mock's history is indexed
+        InvocationIndex index = getInterception().getInvocationIndex(invocations);
+        int[] positions = index != null ? index.positionsOf(invocable, cursor) : null;
+        int candidates = positions != null ? positions.length : invocations.size() - cursor;
+
+        for (int i = 0; i < candidates; i++) {
+            final int position = positions != null ? positions[i] : cursor + i;
+            final Invocation invocation = invocations.get(position);
             if (getInterception().equals(invocation.getInterception()) && invocable.equals(invocation.getInvocable()) && argsMatcher.matches(invocation.getArguments())) {
                 if (unexpectedly && invocation.getExpectationSatisfied() != null) {
                     continue;
@@ -89,7 +98,7 @@ abstract class CheckImpl<C extends CheckImpl<C,I,R>, I extends Interception, R>
                 }
 
                 cardinality.incrementCount();
-                lastMatch = cursor;
+                lastMatch = position;
                 if (!negated) {
                     cardinality.whenCardinalitySatisfied(new Runnable() {
                         public void run() {
@@ -108,7 +117,7 @@ abstract class CheckImpl<C extends CheckImpl<C,I,R>, I extends Interception, R>
 
         if (lastMatch != null && groups != null && !negated) {
             for (GroupImpl group : groups) {
-                group.setCheckCursor(lastMatch);
+                group.setCheckCursor(lastMatch + discarded);
             }
         }
 
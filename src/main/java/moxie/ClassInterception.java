@@ -34,7 +34,7 @@ class ClassInterception<T> extends Interception {
     }
 
     ClassCheckImpl<T> check() {
-        return new ClassCheckImpl<T>(this, invocations);
+        return new ClassCheckImpl<T>(this, getInvocations());
     }
 
     @Override
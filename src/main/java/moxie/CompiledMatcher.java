@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.number.OrderingComparison;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matcher for the comparisons and {@link MoxieMatchers#and(Object[]) and()}/{@link MoxieMatchers#or(Object[]) or()}/
+ * {@link MoxieMatchers#not(Object) not()} combinations built by {@link MoxieMatchers}, compiled when the expectation
+ * is recorded rather than interpreted through nested Hamcrest matchers on every invocation.
+ * <p>
+ * Comparisons against primitive values test the unboxed argument directly.  Nested <code>and()</code>s and
+ * <code>or()</code>s are flattened into a single short-circuiting loop, and runs of integral comparisons are folded
+ * together - <code>and(gt(0), lt(10))</code> becomes one range check, <code>or(1, 3, 5)</code> one search of a
+ * sorted array, and <code>not(leq(5))</code> the range above 5.  Only adjacent comparisons are folded, so any other
+ * matchers in the expression (which may capture arguments as a side effect) still see exactly the arguments they
+ * would have done.
+ * <p>
+ * Each compiled matcher keeps hold of the equivalent Hamcrest matcher, which it uses to describe itself, and to
+ * match <code>null</code> or any argument of a type it wasn't compiled for.
+ */
+class CompiledMatcher extends BaseMatcher<Object> {
+    private final Node node;
+
+    private CompiledMatcher(Node node) {
+        this.node = node;
+    }
+
+    public boolean matches(Object item) {
+        return node.matches(item);
+    }
+
+    public void describeTo(Description description) {
+        node.original.describeTo(description);
+    }
+
+    static <T extends Comparable<T>> Matcher lessThan(T value) {
+        return comparison(value, OrderingComparison.lessThan(value), Long.MIN_VALUE, -1);
+    }
+
+    static <T extends Comparable<T>> Matcher lessThanOrEqualTo(T value) {
+        return comparison(value, OrderingComparison.lessThanOrEqualTo(value), Long.MIN_VALUE, 0);
+    }
+
+    static <T extends Comparable<T>> Matcher greaterThan(T value) {
+        return comparison(value, OrderingComparison.greaterThan(value), 1, Long.MAX_VALUE);
+    }
+
+    static <T extends Comparable<T>> Matcher greaterThanOrEqualTo(T value) {
+        return comparison(value, OrderingComparison.greaterThanOrEqualTo(value), 0, Long.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Matcher equalTo(Object value) {
+        return comparison(value, IsEqual.equalTo(value), 0, 0);
+    }
+
+    /**
+     * @param lowOffset  offset from the value of the lowest integral value matched, or {@link Long#MIN_VALUE} if unbounded
+     * @param highOffset offset from the value of the highest integral value matched, or {@link Long#MAX_VALUE} if unbounded
+     */
+    static private Matcher comparison(Object value, Matcher original, long lowOffset, long highOffset) {
+        if (isIntegral(value)) {
+            long longValue = longValue(value);
+            long low = lowOffset == Long.MIN_VALUE ? Long.MIN_VALUE : longValue + lowOffset;
+            long high = highOffset == Long.MAX_VALUE ? Long.MAX_VALUE : longValue + highOffset;
+            if ((lowOffset > 0 && longValue == Long.MAX_VALUE) || (highOffset < 0 && longValue == Long.MIN_VALUE)) {
+                // nothing lies beyond the end of the range
+                low = 1;
+                high = 0;
+            }
+            return new CompiledMatcher(new IntegralRange(original, value.getClass(), low, high));
+        } else if (value instanceof Double || value instanceof Float) {
+            int minCompare = lowOffset == Long.MIN_VALUE ? -1 : (int) lowOffset;
+            int maxCompare = highOffset == Long.MAX_VALUE ? 1 : (int) highOffset;
+            return new CompiledMatcher(new FloatingComparison(original, value.getClass(), ((Number) value).doubleValue(), minCompare, maxCompare));
+        }
+        return original;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Matcher allOf(List<Matcher> matchers) {
+        List<Node> nodes = new ArrayList<Node>();
+        for (Matcher matcher : matchers) {
+            Node node = nodeFor(matcher);
+            if (node instanceof All) {
+                for (Node child : ((All) node).children) {
+                    addToAll(nodes, child);
+                }
+            } else {
+                addToAll(nodes, node);
+            }
+        }
+        Matcher original = new AllOf(originals(matchers));
+        return new CompiledMatcher(nodes.size() == 1 ? nodes.get(0).withOriginal(original) : new All(original, nodes));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Matcher anyOf(List<Matcher> matchers) {
+        List<Node> nodes = new ArrayList<Node>();
+        for (Matcher matcher : matchers) {
+            Node node = nodeFor(matcher);
+            if (node instanceof Any) {
+                for (Node child : ((Any) node).children) {
+                    addToAny(nodes, child);
+                }
+            } else {
+                addToAny(nodes, node);
+            }
+        }
+        Matcher original = new AnyOf(originals(matchers));
+        return new CompiledMatcher(nodes.size() == 1 ? nodes.get(0).withOriginal(original) : new Any(original, nodes));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Matcher not(Matcher matcher) {
+        Node node = nodeFor(matcher);
+        Matcher original = IsNot.not(originalOf(matcher));
+        if (node instanceof Not) {
+            return new CompiledMatcher(((Not) node).child.withOriginal(original));
+        } else if (node instanceof IntegralRange) {
+            IntegralRange range = (IntegralRange) node;
+            if (range.low == Long.MIN_VALUE && range.high != Long.MAX_VALUE) {
+                return new CompiledMatcher(new IntegralRange(original, range.type, range.high + 1, Long.MAX_VALUE));
+            } else if (range.high == Long.MAX_VALUE && range.low != Long.MIN_VALUE) {
+                return new CompiledMatcher(new IntegralRange(original, range.type, Long.MIN_VALUE, range.low - 1));
+            }
+        }
+        return new CompiledMatcher(new Not(original, node));
+    }
+
+    static private void addToAll(List<Node> nodes, Node node) {
+        if (!nodes.isEmpty()) {
+            Node last = nodes.get(nodes.size() - 1);
+            if (last instanceof IntegralRange && node instanceof IntegralRange && ((IntegralRange) last).type == ((IntegralRange) node).type) {
+                nodes.set(nodes.size() - 1, ((IntegralRange) last).intersect((IntegralRange) node));
+                return;
+            }
+        }
+        nodes.add(node);
+    }
+
+    static private void addToAny(List<Node> nodes, Node node) {
+        if (!nodes.isEmpty()) {
+            Node last = nodes.get(nodes.size() - 1);
+            if (IntegralSet.canHold(last) && IntegralSet.canHold(node) && typeOf(last) == typeOf(node)) {
+                nodes.set(nodes.size() - 1, IntegralSet.union(last, node));
+                return;
+            }
+        }
+        nodes.add(node);
+    }
+
+    static private Node nodeFor(Matcher matcher) {
+        return matcher instanceof CompiledMatcher ? ((CompiledMatcher) matcher).node : new Leaf(matcher);
+    }
+
+    static private Matcher originalOf(Matcher matcher) {
+        return matcher instanceof CompiledMatcher ? ((CompiledMatcher) matcher).node.original : matcher;
+    }
+
+    static private List<Matcher> originals(List<Matcher> matchers) {
+        List<Matcher> result = new ArrayList<Matcher>(matchers.size());
+        for (Matcher matcher : matchers) {
+            result.add(originalOf(matcher));
+        }
+        return result;
+    }
+
+    static private Class typeOf(Node node) {
+        return node instanceof IntegralRange ? ((IntegralRange) node).type : ((IntegralSet) node).type;
+    }
+
+    static private boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte || value instanceof Character;
+    }
+
+    static private long longValue(Object value) {
+        return value instanceof Character ? (Character) value : ((Number) value).longValue();
+    }
+
+    /**
+     * A compiled (sub)expression, along with the Hamcrest matcher it stands in for.
+     */
+    static private abstract class Node {
+        final Matcher original;
+
+        Node(Matcher original) {
+            this.original = original;
+        }
+
+        abstract boolean matches(Object item);
+
+        /**
+         * @return an equivalent node, standing in for the given (equivalent) Hamcrest matcher
+         */
+        abstract Node withOriginal(Matcher original);
+    }
+
+    static private class Leaf extends Node {
+        Leaf(Matcher original) {
+            super(original);
+        }
+
+        boolean matches(Object item) {
+            return original.matches(item);
+        }
+
+        Node withOriginal(Matcher original) {
+            // the leaf's own matcher still does the matching
+            return new All(original, Arrays.<Node>asList(this));
+        }
+    }
+
+    static private class All extends Node {
+        final Node[] children;
+
+        All(Matcher original, List<Node> children) {
+            super(original);
+            this.children = children.toArray(new Node[children.size()]);
+        }
+
+        boolean matches(Object item) {
+            for (Node child : children) {
+                if (!child.matches(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Node withOriginal(Matcher original) {
+            return new All(original, Arrays.asList(children));
+        }
+    }
+
+    static private class Any extends Node {
+        final Node[] children;
+
+        Any(Matcher original, List<Node> children) {
+            super(original);
+            this.children = children.toArray(new Node[children.size()]);
+        }
+
+        boolean matches(Object item) {
+            for (Node child : children) {
+                if (child.matches(item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Node withOriginal(Matcher original) {
+            return new Any(original, Arrays.asList(children));
+        }
+    }
+
+    static private class Not extends Node {
+        final Node child;
+
+        Not(Matcher original, Node child) {
+            super(original);
+            this.child = child;
+        }
+
+        boolean matches(Object item) {
+            return !child.matches(item);
+        }
+
+        Node withOriginal(Matcher original) {
+            return new Not(original, child);
+        }
+    }
+
+    /**
+     * Arguments of the given integral type between <code>low</code> and <code>high</code> inclusive.
+     */
+    static private class IntegralRange extends Node {
+        final Class type;
+        final long low;
+        final long high;
+
+        IntegralRange(Matcher original, Class type, long low, long high) {
+            super(original);
+            this.type = type;
+            this.low = low;
+            this.high = high;
+        }
+
+        boolean matches(Object item) {
+            if (item == null || item.getClass() != type) {
+                return original.matches(item);
+            }
+            long value = longValue(item);
+            return low <= value && value <= high;
+        }
+
+        IntegralRange intersect(IntegralRange other) {
+            return new IntegralRange(new AllOf(Arrays.asList(original, other.original)), type, Math.max(low, other.low), Math.min(high, other.high));
+        }
+
+        Node withOriginal(Matcher original) {
+            return new IntegralRange(original, type, low, high);
+        }
+    }
+
+    /**
+     * Arguments of the given integral type equal to any of a set of values.
+     */
+    static private class IntegralSet extends Node {
+        final Class type;
+        final long[] values;
+
+        IntegralSet(Matcher original, Class type, long[] values) {
+            super(original);
+            this.type = type;
+            this.values = values;
+        }
+
+        static boolean canHold(Node node) {
+            return node instanceof IntegralSet || (node instanceof IntegralRange && ((IntegralRange) node).low == ((IntegralRange) node).high);
+        }
+
+        static IntegralSet union(Node first, Node second) {
+            long[] firstValues = valuesOf(first);
+            long[] secondValues = valuesOf(second);
+            long[] values = new long[firstValues.length + secondValues.length];
+            System.arraycopy(firstValues, 0, values, 0, firstValues.length);
+            System.arraycopy(secondValues, 0, values, firstValues.length, secondValues.length);
+            Arrays.sort(values);
+            return new IntegralSet(new AnyOf(Arrays.asList(first.original, second.original)), typeOf(first), values);
+        }
+
+        static private long[] valuesOf(Node node) {
+            return node instanceof IntegralSet ? ((IntegralSet) node).values : new long[]{((IntegralRange) node).low};
+        }
+
+        boolean matches(Object item) {
+            if (item == null || item.getClass() != type) {
+                return original.matches(item);
+            }
+            return Arrays.binarySearch(values, longValue(item)) >= 0;
+        }
+
+        Node withOriginal(Matcher original) {
+            return new IntegralSet(original, type, values);
+        }
+    }
+
+    /**
+     * Arguments of the given floating-point type comparing to the given value as {@link Double#compare} does, which is
+     * how the boxed values would compare.
+     */
+    static private class FloatingComparison extends Node {
+        final Class type;
+        final double value;
+        final int minCompare;
+        final int maxCompare;
+
+        FloatingComparison(Matcher original, Class type, double value, int minCompare, int maxCompare) {
+            super(original);
+            this.type = type;
+            this.value = value;
+            this.minCompare = minCompare;
+            this.maxCompare = maxCompare;
+        }
+
+        boolean matches(Object item) {
+            if (item == null || item.getClass() != type) {
+                return original.matches(item);
+            }
+            int compare = Double.compare(((Number) item).doubleValue(), value);
+            compare = compare < 0 ? -1 : compare > 0 ? 1 : 0;
+            return minCompare <= compare && compare <= maxCompare;
+        }
+
+        Node withOriginal(Matcher original) {
+            return new FloatingComparison(original, type, value, minCompare, maxCompare);
+        }
+    }
+}
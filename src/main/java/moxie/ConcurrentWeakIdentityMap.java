@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe counterpart to {@link WeakIdentityMap}: keys are compared by identity and only weakly referenced.
+ * <p>
+ * Built on a (lock-striped) {@link ConcurrentHashMap}, so lookups never block.  Entries whose keys have been
+ * garbage collected are removed a few at a time as the map is updated, rather than all at once.
+ * <p>
+ * Iterators are weakly consistent, as with <code>ConcurrentHashMap</code>, and skip entries whose keys have
+ * been collected.
+ */
+class ConcurrentWeakIdentityMap<K,V> extends AbstractMap<K,V> {
+
+    // Cap on the number of stale entries removed by any one update, so no caller pays for a large purge.
+    static private final int MAX_EXPUNGED_PER_UPDATE = 32;
+
+    private final ReferenceQueue<K> referenceQueue = new ReferenceQueue<K>();
+    private final ConcurrentHashMap<Object, V> map;
+
+    public ConcurrentWeakIdentityMap() {
+        map = new ConcurrentHashMap<Object, V>();
+    }
+
+    public ConcurrentWeakIdentityMap(int initialCapacity) {
+        map = new ConcurrentHashMap<Object, V>(initialCapacity);
+    }
+
+    @Override
+    public V get(Object k) {
+        return map.get(new LookupKey(k));
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        return map.containsKey(new LookupKey(k));
+    }
+
+    @Override
+    public V put(K k, V v) {
+        expungeStaleEntries();
+        return map.put(new WeakKey<K>(k, referenceQueue), v);
+    }
+
+    @Override
+    public V remove(Object k) {
+        expungeStaleEntries();
+        return map.remove(new LookupKey(k));
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        while (referenceQueue.poll() != null) {
+            // discard - nothing left to remove
+        }
+    }
+
+    @Override
+    public int size() {
+        expungeStaleEntries();
+        return map.size();
+    }
+
+    private void expungeStaleEntries() {
+        for (int i = 0; i < MAX_EXPUNGED_PER_UPDATE; i++) {
+            Object staleKey = referenceQueue.poll();
+            if (staleKey == null) {
+                return;
+            }
+            map.remove(staleKey);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<Map.Entry<Object, V>> delegate = map.entrySet().iterator();
+                return new Iterator<Map.Entry<K, V>>() {
+                    private Map.Entry<K, V> next;
+                    private Object lastKey;
+
+                    public boolean hasNext() {
+                        while (next == null && delegate.hasNext()) {
+                            Map.Entry<Object, V> entry = delegate.next();
+                            @SuppressWarnings("unchecked")
+                            WeakKey<K> weakKey = (WeakKey<K>) entry.getKey();
+                            K key = weakKey.get();
+                            if (key != null) {
+                                next = new Entry<K, V>(weakKey, key, entry.getValue());
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    public Map.Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<K, V> result = next;
+                        lastKey = ((Entry<K, V>) result).weakKey;
+                        next = null;
+                        return result;
+                    }
+
+                    public void remove() {
+                        if (lastKey == null) {
+                            throw new IllegalStateException();
+                        }
+                        map.remove(lastKey);
+                        lastKey = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentWeakIdentityMap.this.size();
+            }
+        };
+    }
+
+    private static class WeakKey<K> extends WeakReference<K> {
+        private final int identityHashCode;
+
+        WeakKey(K k, ReferenceQueue<? super K> referenceQueue) {
+            super(k, referenceQueue);
+            this.identityHashCode = System.identityHashCode(k);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            Object referent = get();
+            if (referent == null) {
+                // collected - only ever equal to itself, so that it can still be removed
+                return false;
+            }
+            if (o instanceof WeakKey) {
+                return referent == ((WeakKey) o).get();
+            }
+            return o instanceof LookupKey && referent == ((LookupKey) o).key;
+        }
+
+        @Override
+        public int hashCode() {
+            return identityHashCode;
+        }
+    }
+
+    private static class LookupKey {
+        private final Object key;
+
+        LookupKey(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof WeakKey && ((WeakKey) o).get() == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key);
+        }
+    }
+
+    private static class Entry<K, V> implements Map.Entry<K, V> {
+        private final WeakKey<K> weakKey;
+        private final K key;
+        private final V value;
+
+        Entry(WeakKey<K> weakKey, K key, V value) {
+            this.weakKey = weakKey;
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry that = (Map.Entry) o;
+            return key == that.getKey() && (value == null ? that.getValue() == null : value.equals(that.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(key) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
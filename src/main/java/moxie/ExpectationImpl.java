@@ -38,12 +38,15 @@ import java.util.List;
 import java.util.Set;
 
 abstract class ExpectationImpl<E extends ExpectationImpl<E, I>, I extends Interception> implements SelfDescribing {
+    private static final Object[] NO_ARGS = new Object[0];
+
     @SuppressWarnings("unchecked")
     protected CardinalityImpl<E> cardinality = new CardinalityImpl<CardinalityImpl>().once();
     private Set<GroupImpl> groups = null;
     private MethodIntercept handler = null;
     private InvocableAdapter invocable;
     private List<Matcher> argMatchers = new ArrayList<Matcher>();
+    private Matcher argsMatcher;
     private boolean defaultCardinality = true;
     private boolean unordered = false;
     protected Matcher returnValueMatcher;
@@ -191,6 +194,7 @@ abstract class ExpectationImpl<E extends ExpectationImpl<E, I>, I extends Interc
 //        // TODO: handle deep mocks differently
         this.invocable = invocable;
         argMatchers = MatcherSyntax.methodCall(invocable, params);
+        argsMatcher = new IsArray(argMatchers);
         getInterception().addExpectation(this);
 
 //        if (deepMockable) {
@@ -256,13 +260,20 @@ abstract class ExpectationImpl<E extends ExpectationImpl<E, I>, I extends Interc
     }
 
     boolean match(InvocableAdapter invocableAdapter, Object[] args, MethodBehavior behavior, GroupImpl group) {
-        if (!this.invocable.matches(invocableAdapter)) {
-            return false;
-        }
-        @SuppressWarnings("unchecked")
-        Matcher argsMatcher = new IsArray(argMatchers);
+        return matchesInvocable(invocableAdapter) && matchInvocation(args, behavior);
+    }
+
+    boolean matchesInvocable(InvocableAdapter invocableAdapter) {
+        return this.invocable.matches(invocableAdapter);
+    }
+
+    /**
+     * Matches the arguments/result of an invocation, presuming the invoked method has already been matched
+     * using {@link #matchesInvocable(InvocableAdapter)}.
+     */
+    boolean matchInvocation(Object[] args, MethodBehavior behavior) {
         if (args == null) {
-            args = new Object[0];
+            args = NO_ARGS;
         }
         if (!argsMatcher.matches(args)) {
             return false;
@@ -285,17 +296,17 @@ abstract class ExpectationImpl<E extends ExpectationImpl<E, I>, I extends Interc
                 }
             }
         }
-        if (!cardinality.isViable()) {
-            return false;
-        }
-        cardinality.incrementCount();
-        return true;
+        return cardinality.incrementCountIfViable();
     }
 
     MethodIntercept getHandler() {
         return handler;
     }
 
+    InvocableAdapter getInvocable() {
+        return invocable;
+    }
+
     @SuppressWarnings("unchecked")
     Set<GroupImpl> getGroups() {
         return (groups != null) ? groups : Collections.EMPTY_SET;
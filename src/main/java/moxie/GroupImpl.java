@@ -23,8 +23,11 @@
 package moxie;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 class GroupImpl implements Group, Verifiable {
 
@@ -32,12 +35,15 @@ class GroupImpl implements Group, Verifiable {
     private final InstantiationStackTrace whereInstantiated;
     private final List<ExpectationImpl> unorderedExpectations = new ArrayList<ExpectationImpl>();
     private final List<ExpectationImpl> orderedExpectations = new ArrayList<ExpectationImpl>();
-    private final List<MoxieUnexpectedInvocationError> unexpectedInvocations = new ArrayList<MoxieUnexpectedInvocationError>();
+    private final Map<InvocableAdapter, ExpectationImpl[]> unorderedDispatch = new ConcurrentHashMap<InvocableAdapter, ExpectationImpl[]>();
+    private final List<MoxieUnexpectedInvocationError> unexpectedInvocations = Collections.synchronizedList(new ArrayList<MoxieUnexpectedInvocationError>());
     private boolean defaultCardinality;
     private CardinalityImpl cardinality;
     private int cursor;
 
-    private int checkCursor;
+    // Position of the last invocation matched by an ordered check.  Counted from the first invocation ever recorded,
+    // including any since discarded from a RECENT_HISTORY mock's history, so that it doesn't shift as they're dropped.
+    private long checkCursor;
     private MoxieFlags flags;
 
     GroupImpl(String name, MoxieFlags flags) {
@@ -64,6 +70,7 @@ class GroupImpl implements Group, Verifiable {
             this.flags = this.flags != null ? MoxieOptions.mergeWithDefaults(this.flags, flags) : flags;
         }
         unorderedExpectations.clear();
+        unorderedDispatch.clear();
         orderedExpectations.clear();
         defaultCardinality = true;
         cardinality = new CardinalityImpl<CardinalityImpl>().once();
@@ -84,6 +91,21 @@ class GroupImpl implements Group, Verifiable {
             orderedExpectations.add(expectation);
         } else {
             unorderedExpectations.add(expectation);
+            if (expectation.getInvocable() != null) {
+                // Append to any dispatch lists this expectation belongs in - appending keeps them in declaration order.
+                for (Map.Entry<InvocableAdapter, ExpectationImpl[]> entry : unorderedDispatch.entrySet()) {
+                    if (expectation.matchesInvocable(entry.getKey())) {
+                        ExpectationImpl[] oldCandidates = entry.getValue();
+                        ExpectationImpl[] newCandidates = new ExpectationImpl[oldCandidates.length + 1];
+                        System.arraycopy(oldCandidates, 0, newCandidates, 0, oldCandidates.length);
+                        newCandidates[oldCandidates.length] = expectation;
+                        entry.setValue(newCandidates);
+                    }
+                }
+            } else {
+                // Method not known yet (e.g. added via inGroup()), so we can't say where it belongs - start over.
+                unorderedDispatch.clear();
+            }
         }
     }
 
@@ -123,27 +145,14 @@ class GroupImpl implements Group, Verifiable {
     @SuppressWarnings("unchecked")
     public ExpectationImpl match(InvocableAdapter invocable, Object[] args, MethodBehavior behavior) {
         ExpectationImpl result = null;
-        for (ExpectationImpl expectation : unorderedExpectations) {
-            if (expectation.match(invocable, args, behavior, this)) {
+        for (ExpectationImpl expectation : unorderedCandidatesFor(invocable)) {
+            if (expectation.matchInvocation(args, behavior)) {
                 result = expectation;
                 break;
             }
         }
         if (result == null && !orderedExpectations.isEmpty()) {
-            if (cardinality.isViable()) {
-                if (orderedExpectations.get(cursor).match(invocable, args, behavior, this)) {
-                    result = orderedExpectations.get(cursor);
-                } else {
-                    cursor++;
-                    if (cursor == orderedExpectations.size()) {
-                        cursor = 0;
-                        cardinality.incrementCount();
-                    }
-                    if (cardinality.isViable() && orderedExpectations.get(cursor).match(invocable, args, behavior, this)) {
-                        result = orderedExpectations.get(cursor);
-                    }
-                }
-            }
+            result = matchOrdered(invocable, args, behavior);
         }
         if (result != null) {
             for (GroupImpl group : (Set<GroupImpl>) result.getGroups()) {
@@ -153,7 +162,50 @@ class GroupImpl implements Group, Verifiable {
         return result;
     }
 
-    public void match(ExpectationImpl expectation, InvocableAdapter invocable, Object[] args) {
+    private synchronized ExpectationImpl matchOrdered(InvocableAdapter invocable, Object[] args, MethodBehavior behavior) {
+        if (cardinality.isViable()) {
+            if (orderedExpectations.get(cursor).match(invocable, args, behavior, this)) {
+                return orderedExpectations.get(cursor);
+            } else {
+                cursor++;
+                if (cursor == orderedExpectations.size()) {
+                    cursor = 0;
+                    cardinality.incrementCount();
+                }
+                if (cardinality.isViable() && orderedExpectations.get(cursor).match(invocable, args, behavior, this)) {
+                    return orderedExpectations.get(cursor);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns those unordered expectations which could possibly match the given method, in the order in which they
+     * were declared.  Arrays are built on the first call for each method and kept up to date by {@link #add}.
+     */
+    private ExpectationImpl[] unorderedCandidatesFor(InvocableAdapter invocable) {
+        ExpectationImpl[] result = unorderedDispatch.get(invocable);
+        if (result == null) {
+            boolean allBound = true;
+            List<ExpectationImpl> candidates = new ArrayList<ExpectationImpl>();
+            for (ExpectationImpl expectation : unorderedExpectations) {
+                if (expectation.getInvocable() == null) {
+                    allBound = false;
+                } else if (expectation.matchesInvocable(invocable)) {
+                    candidates.add(expectation);
+                }
+            }
+            result = candidates.toArray(new ExpectationImpl[candidates.size()]);
+            // Expectations not yet bound to a method may be bound later, so don't cache if there are any.
+            if (allBound) {
+                unorderedDispatch.put(invocable, result);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void match(ExpectationImpl expectation, InvocableAdapter invocable, Object[] args) {
         if (!orderedExpectations.isEmpty()) {
             if (cardinality.isViable()) {
                 if (orderedExpectations.get(cursor) == expectation) {
@@ -172,11 +224,11 @@ class GroupImpl implements Group, Verifiable {
         }
     }
 
-    int getCheckCursor() {
+    long getCheckCursor() {
         return checkCursor;
     }
 
-    void setCheckCursor(int checkCursor) {
+    void setCheckCursor(long checkCursor) {
         this.checkCursor = checkCursor;
     }
 
@@ -24,8 +24,24 @@ package moxie;
 
 class InstantiationStackTrace extends Throwable {
 
+    private final InvocableAdapter invocable;
+
     InstantiationStackTrace(String message) {
         super(message);
+        this.invocable = null;
+    }
+
+    /**
+     * Trace of a call to the given method.  Taken on every (sampled) mock invocation, so the message is only
+     * built if the trace is actually printed.
+     */
+    InstantiationStackTrace(InvocableAdapter invocable) {
+        this.invocable = invocable;
+    }
+
+    @Override
+    public String getMessage() {
+        return invocable != null ? "method " + invocable.getName() + " called here" : super.getMessage();
     }
 
 }
\ No newline at end of file
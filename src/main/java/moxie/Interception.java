@@ -22,10 +22,12 @@
 
 package moxie;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 abstract class Interception implements MethodIntercept, Verifiable {
 
@@ -40,27 +42,47 @@ abstract class Interception implements MethodIntercept, Verifiable {
             this.paramTypes = Arrays.asList(paramTypes);
         }
 
+        // Cheap - each MethodAdapter works out up front which of these it matches.
         boolean matches(InvocableAdapter m) {
-            return m != null &&
-                m instanceof MethodAdapter &&
-                !Modifier.isStatic(((MethodAdapter) m).getMethod().getModifiers()) &&
+            return m instanceof MethodAdapter && ((MethodAdapter) m).getObjectMethod() == this;
+        }
+
+        private boolean matchesMethod(Method m) {
+            return !Modifier.isStatic(m.getModifiers()) &&
                 methodName.equals(m.getName()) &&
                 returnType.equals(m.getReturnType()) &&
                 paramTypes.equals(Arrays.asList(m.getParameterTypes()));
         }
+
+        static MethodMatcher objectMethodMatching(Method m) {
+            for (MethodMatcher matcher : OBJECT_METHODS) {
+                if (matcher.matchesMethod(m)) {
+                    return matcher;
+                }
+            }
+            return null;
+        }
     }
-    protected static MethodMatcher TO_STRING = new MethodMatcher("toString", String.class);
-    protected static MethodMatcher EQUALS = new MethodMatcher("equals", Boolean.TYPE, Object.class);
-    protected static MethodMatcher HASH_CODE = new MethodMatcher("hashCode", Integer.TYPE);
-    protected static MethodMatcher FINALIZE = new MethodMatcher("finalize", Void.TYPE);
+    protected static final MethodMatcher TO_STRING = new MethodMatcher("toString", String.class);
+    protected static final MethodMatcher EQUALS = new MethodMatcher("equals", Boolean.TYPE, Object.class);
+    protected static final MethodMatcher HASH_CODE = new MethodMatcher("hashCode", Integer.TYPE);
+    protected static final MethodMatcher FINALIZE = new MethodMatcher("finalize", Void.TYPE);
+    private static final MethodMatcher[] OBJECT_METHODS = { TO_STRING, EQUALS, HASH_CODE, FINALIZE };
+
+    // Under SAMPLED_TRACE, only one invocation in this many gets a stack trace.
+    static final int TRACE_SAMPLING_INTERVAL = 16;
+
+    static private final InvocationLog invocationLog = InvocationLog.getInstance();
 
     protected final Class clazz;
     protected final String name;
     private final Throwable whereInstantiated;
-    protected final List<Invocation> invocations = new ArrayList<Invocation>();
+    protected List<Invocation> invocations = new ArrayList<Invocation>();
     protected MoxieFlags flags;
     private GroupImpl methods;
     private ThreadLocal<MethodIntercept> threadLocalHandler = null;
+    private final AtomicInteger invocationCount = new AtomicInteger();
+    private InvocationIndex invocationIndex;
 
     protected Interception(Class clazz, String name, MoxieFlags flags, InstantiationStackTrace instantiationStackTrace) {
         this.clazz = clazz;
@@ -68,16 +90,41 @@ abstract class Interception implements MethodIntercept, Verifiable {
         this.flags = MoxieOptions.MOCK_DEFAULTS;
         this.whereInstantiated = instantiationStackTrace;
         this.methods = new GroupImpl(name, flags);
-        reset(flags);
+        // the group is brand new, so there's no need to reset it as well
+        if (flags != null) {
+            this.flags = flags;
+        }
+        resetInvocations();
     }
 
     public void reset(MoxieFlags flags) {
         if (flags != null) {
             this.flags = flags;
         }
+        resetInvocations();
         this.methods.reset(flags);
     }
 
+    private void resetInvocations() {
+        int historyLimit = getHistoryLimit();
+        List<Invocation> newInvocations = null;
+        if (historyLimit < Integer.MAX_VALUE) {
+            if (!(invocations instanceof RecentHistoryList) || ((RecentHistoryList) invocations).getCapacity() != historyLimit) {
+                newInvocations = new RecentHistoryList<Invocation>(historyLimit);
+            }
+        } else if (MoxieUtils.unbox(this.flags.isConcurrent(), false)) {
+            if (!(invocations instanceof AppendOnlyList)) {
+                newInvocations = new AppendOnlyList<Invocation>();
+            }
+        } else if (invocations instanceof RecentHistoryList) {
+            newInvocations = new ArrayList<Invocation>();
+        }
+        if (newInvocations != null) {
+            newInvocations.addAll(invocations);
+            invocations = newInvocations;
+        }
+    }
+
     public Object intercept(Object unusedProxy, InvocableAdapter invocable, Object[] args, SuperInvoker superInvoker) throws Throwable {
         if (threadLocalHandler != null) {
             MethodIntercept threadLocalIntercept = threadLocalHandler.get();
@@ -86,43 +133,87 @@ abstract class Interception implements MethodIntercept, Verifiable {
             }
         }
 
-        final Invocation invocation = new Invocation(this, invocable, args);
-        invocations.add(invocation);
+        // under NO_HISTORY, don't even create a record of the invocation - expectations just count the calls
+        final Invocation invocation = getHistoryLimit() > 0 ? new Invocation(this, invocable, args) : null;
+        if (invocation != null) {
+            invocations.add(invocation);
+        }
 
         MethodBehavior methodBehavior = defaultBehavior(invocable, args, superInvoker);
         final ExpectationImpl expectation = methods.match(invocable, args, methodBehavior);
         if (expectation != null) {
-            expectation.whenCardinalitySatisfied(new Runnable() {
-                public void run() {
-                    invocation.setExpectationSatisfied(expectation);
-                }
-            });
+            if (invocation != null) {
+                expectation.whenCardinalitySatisfied(new Runnable() {
+                    public void run() {
+                        invocation.setExpectationSatisfied(expectation);
+                    }
+                });
+            }
             if (expectation.getHandler() != null) {
+                Object result;
                 try {
-                    Object result = expectation.getHandler().intercept(unusedProxy, invocable, args, superInvoker);
-                    invocation.setValueReturned(result);
-                    return result;
+                    result = expectation.getHandler().intercept(unusedProxy, invocable, args, superInvoker);
                 } catch (Throwable t) {
-                    invocation.setExceptionThrown(t);
+                    recordException(invocation, invocable, args, t);
                     throw t;
                 }
+                recordResult(invocation, invocable, args, result);
+                return result;
             }
         } else if (!MoxieUtils.unbox(flags.isAutoStubbing(), false)
                 && !EQUALS.matches(invocable)
                 && !HASH_CODE.matches(invocable)
                 && !TO_STRING.matches(invocable)
                 && !FINALIZE.matches(invocable)) {
-            methods.throwUnexpectedInvocationError("unexpected method invocation", invocable, args);
+            try {
+                methods.throwUnexpectedInvocationError("unexpected method invocation", invocable, args);
+            } catch (MoxieUnexpectedInvocationError e) {
+                if (invocationLog != null) {
+                    invocationLog.write(name, invocable, args, null, e);
+                }
+                throw e;
+            }
         }
 
+        Object result;
         try {
-            Object result = methodBehavior.invoke();
-            invocation.setValueReturned(result);
-            return result;
+            result = methodBehavior.invoke();
         } catch (Throwable t) {
-            invocation.setExceptionThrown(t);
+            recordException(invocation, invocable, args, t);
             throw t;
         }
+        recordResult(invocation, invocable, args, result);
+        return result;
+    }
+
+    private void recordResult(Invocation invocation, InvocableAdapter invocable, Object[] args, Object result) {
+        if (invocation != null) {
+            invocation.setValueReturned(result);
+        }
+        if (invocationLog != null) {
+            invocationLog.write(name, invocable, args, result, null);
+        }
+    }
+
+    private void recordException(Invocation invocation, InvocableAdapter invocable, Object[] args, Throwable t) {
+        if (invocation != null) {
+            invocation.setExceptionThrown(t);
+        }
+        if (invocationLog != null) {
+            invocationLog.write(name, invocable, args, null, t);
+        }
+    }
+
+    private int getHistoryLimit() {
+        Integer historyLimit = flags.getHistoryLimit();
+        return historyLimit != null ? historyLimit : Integer.MAX_VALUE;
+    }
+
+    boolean shouldTraceInvocation() {
+        if (!MoxieUtils.unbox(flags.isTracing(), false)) {
+            return false;
+        }
+        return !MoxieUtils.unbox(flags.isSampledTracing(), false) || invocationCount.getAndIncrement() % TRACE_SAMPLING_INTERVAL == 0;
     }
 
     abstract protected MethodBehavior defaultBehavior(InvocableAdapter invocable, Object[] args, SuperInvoker superInvoker);
@@ -147,10 +238,35 @@ abstract class Interception implements MethodIntercept, Verifiable {
         return name;
     }
 
+    /**
+     * @return whether any invocations are recorded for this mock, i.e. whether it wasn't created with NO_HISTORY
+     */
+    boolean recordsHistory() {
+        return getHistoryLimit() > 0;
+    }
+
     List<Invocation> getInvocations() {
+        if (!recordsHistory()) {
+            throw new IllegalStateException("no invocations are recorded for \"" + name + "\", as it was created with the NO_HISTORY option");
+        }
         return invocations;
     }
 
+    /**
+     * @return an index of the given invocation list, or <code>null</code> if it isn't this mock's current history
+     * or its invocations don't stay in place (as with {@link MoxieOptions#RECENT_HISTORY})
+     */
+    InvocationIndex getInvocationIndex(List<Invocation> invocations) {
+        if (invocations != this.invocations || invocations instanceof RecentHistoryList) {
+            return null;
+        }
+        InvocationIndex result = invocationIndex;
+        if (result == null || result.getInvocations() != invocations) {
+            result = invocationIndex = new InvocationIndex(invocations);
+        }
+        return result;
+    }
+
     void addExpectation(ExpectationImpl expectation) {
         methods.add(expectation);
     }
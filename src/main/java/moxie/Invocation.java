@@ -40,7 +40,7 @@ class Invocation implements SelfDescribing {
         this.interception = interception;
         this.invocable = invocable;
         this.arguments = arguments;
-        instantiationStackTrace = MoxieUtils.unbox(interception.flags.isTracing(), false) ? new InstantiationStackTrace("method " + invocable.getName() + " called here") : null;
+        instantiationStackTrace = interception.shouldTraceInvocation() ? new InstantiationStackTrace(invocable) : null;
     }
 
     Object[] getArguments() {
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a mock's invocation history by the method invoked, so that a check need only look at the invocations of
+ * the method it's checking rather than scanning the whole history.
+ * <p>
+ * Positions are those in the underlying list, so ordered groups' check cursors apply to them unchanged.
+ * The index catches up with invocations added since it was last used whenever it's queried, so recording an
+ * invocation costs nothing extra.  Only suitable for lists whose existing elements never move.
+ */
+class InvocationIndex {
+
+    private final List<Invocation> invocations;
+    private final Map<InvocableAdapter, Positions> positionsByInvocable = new HashMap<InvocableAdapter, Positions>();
+    private int indexed = 0;
+
+    InvocationIndex(List<Invocation> invocations) {
+        this.invocations = invocations;
+    }
+
+    List<Invocation> getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * @return positions in the invocation list, in ascending order, of all invocations of the given method at or after the given position
+     */
+    synchronized int[] positionsOf(InvocableAdapter invocable, int from) {
+        for (int size = invocations.size(); indexed < size; indexed++) {
+            InvocableAdapter indexedInvocable = invocations.get(indexed).getInvocable();
+            Positions positions = positionsByInvocable.get(indexedInvocable);
+            if (positions == null) {
+                positions = new Positions();
+                positionsByInvocable.put(indexedInvocable, positions);
+            }
+            positions.add(indexed);
+        }
+        Positions positions = positionsByInvocable.get(invocable);
+        return positions != null ? positions.from(from) : new int[0];
+    }
+
+    static private class Positions {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int position) {
+            if (size == values.length) {
+                int[] newValues = new int[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = position;
+        }
+
+        int[] from(int position) {
+            int low = 0, high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int[] result = new int[size - low];
+            System.arraycopy(values, low, result, 0, result.length);
+            return result;
+        }
+    }
+}
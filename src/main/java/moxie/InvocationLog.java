@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import moxie.hamcrest.SimpleDescription;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Optional log to which every invocation on every mock and spy is written as it happens, for analysing long-running
+ * tests after the fact.  Read it back with {@link InvocationLogReader}.
+ * <p>
+ * Enabled by setting the <code>moxie.invocationLog</code> system property to the name of a file, which is appended
+ * to.  Combined with {@link MoxieOptions#NO_HISTORY} or {@link MoxieOptions#RECENT_HISTORY}, this keeps a complete
+ * record of a test's invocations without holding all of them in memory.
+ * <p>
+ * Each invocation is one line of JSON, holding the thread, the mock's name, the method's name, the arguments and
+ * the value returned or exception thrown, all rendered as text the way verification errors render them (exceptions
+ * only as far as the end of their first line).  Lines are batched in a buffer and written out through a
+ * {@link FileChannel} whenever it fills up, whenever mocks are verified or reset, and once more as the JVM shuts
+ * down; lines written since the last of these are lost if the JVM dies without running its shutdown hooks.  Any
+ * problem rendering or writing the log disables it, rather than failing the call being logged.
+ */
+class InvocationLog {
+
+    static final String FILE_PROPERTY = "moxie.invocationLog";
+
+    static private final int BUFFER_SIZE = 64 * 1024;
+
+    static private final InvocationLog INSTANCE = create();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean failed = false;
+
+    private InvocationLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @return the log, or <code>null</code> if not enabled
+     */
+    static InvocationLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Flushes the log, if enabled.
+     */
+    static void flushInstance() {
+        if (INSTANCE != null) {
+            INSTANCE.flush();
+        }
+    }
+
+    static private InvocationLog create() {
+        String fileName = System.getProperty(FILE_PROPERTY, "");
+        if (fileName.length() == 0) {
+            return null;
+        }
+        try {
+            final InvocationLog result = new InvocationLog(new FileOutputStream(fileName, true).getChannel());
+            Runtime.getRuntime().addShutdownHook(new Thread("moxie-invocation-log") {
+                @Override
+                public void run() {
+                    result.close();
+                }
+            });
+            return result;
+        } catch (IOException e) {
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    void write(String mockName, InvocableAdapter invocable, Object[] arguments, Object valueReturned, Throwable exceptionThrown) {
+        String line;
+        try {
+            line = render(mockName, invocable, arguments, valueReturned, exceptionThrown);
+        } catch (RuntimeException e) {
+            // values whose toString() throws are already described some other way, so this is something worse
+            disable();
+            return;
+        }
+        write(line);
+    }
+
+    static private String render(String mockName, InvocableAdapter invocable, Object[] arguments, Object valueReturned, Throwable exceptionThrown) {
+        StringBuilder line = new StringBuilder(128);
+        line.append("{\"thread\":");
+        appendString(line, Thread.currentThread().getName());
+        line.append(",\"mock\":");
+        appendString(line, mockName);
+        line.append(",\"method\":");
+        appendString(line, invocable.getName());
+        if (arguments != null) {
+            line.append(",\"arguments\":[");
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendString(line, summarize(arguments[i]));
+            }
+            line.append(']');
+        }
+        if (exceptionThrown != null) {
+            line.append(",\"threw\":");
+            String exceptionSummary = summarize(exceptionThrown);
+            int endOfLine = exceptionSummary.indexOf('\n');
+            // Moxie's own errors go on to list every expectation on the mock - the first line is plenty here
+            appendString(line, endOfLine != -1 ? exceptionSummary.substring(0, endOfLine) : exceptionSummary);
+        } else if (!invocable.getReturnType().equals(Void.TYPE)) {
+            line.append(",\"returned\":");
+            appendString(line, valueReturned != null ? summarize(valueReturned) : null);
+        }
+        line.append("}\n");
+        return line.toString();
+    }
+
+    static private String summarize(Object value) {
+        return new SimpleDescription().appendValue(value).toString();
+    }
+
+    static private void appendString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private synchronized void write(String line) {
+        if (failed) {
+            return;
+        }
+        try {
+            byte[] bytes = line.getBytes("UTF-8");
+            if (bytes.length > buffer.remaining()) {
+                flushBuffer();
+            }
+            if (bytes.length > buffer.remaining()) {
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        } catch (UnsupportedEncodingException e) {
+            failed = true;
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    synchronized void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    private synchronized void disable() {
+        failed = true;
+    }
+
+    synchronized void close() {
+        flush();
+        failed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing more we can do
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Reads back the invocation log Moxie writes when the <code>moxie.invocationLog</code> system property is set to
+ * the name of a file.
+ * <p>
+ *
+ * Each {@link Entry} describes itself the same way invocations are described in Moxie's verification errors.
+ * Running this class from the command line prints every entry in the given log files, each preceded by the name
+ * of the thread that made the invocation.
+ * <p>
+ */
+public class InvocationLogReader implements Closeable {
+    private final BufferedReader reader;
+
+    /**
+     * Opens an invocation log for reading.
+     *
+     * @param file the log file
+     * @throws IOException if the file can't be opened
+     */
+    public InvocationLogReader(File file) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+    }
+
+    /**
+     * Reads the next entry from the log.
+     *
+     * @return the next entry, or <code>null</code> at the end of the log
+     * @throws IOException if the log can't be read, or is malformed
+     */
+    public Entry read() throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.trim().length() == 0) {
+            line = reader.readLine();
+        }
+        return line != null ? new Parser(line).parseEntry() : null;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Prints every entry in the given invocation logs.
+     *
+     * @param args names of the log files
+     * @throws IOException if a log can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String fileName : args) {
+            InvocationLogReader reader = new InvocationLogReader(new File(fileName));
+            try {
+                for (Entry entry = reader.read(); entry != null; entry = reader.read()) {
+                    System.out.println("[" + entry.getThreadName() + "] " + entry);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * A single invocation read from the log.
+     */
+    public static class Entry {
+        private final String threadName;
+        private final String mockName;
+        private final String methodName;
+        private final List<String> arguments;
+        private final boolean returnedValue;
+        private final String valueReturned;
+        private final String exceptionThrown;
+
+        Entry(String threadName, String mockName, String methodName, List<String> arguments, boolean returnedValue, String valueReturned, String exceptionThrown) {
+            this.threadName = threadName;
+            this.mockName = mockName;
+            this.methodName = methodName;
+            this.arguments = arguments;
+            this.returnedValue = returnedValue;
+            this.valueReturned = valueReturned;
+            this.exceptionThrown = exceptionThrown;
+        }
+
+        /**
+         * @return name of the thread that made the invocation
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * @return name of the mock or spy invoked
+         */
+        public String getMockName() {
+            return mockName;
+        }
+
+        /**
+         * @return name of the method invoked
+         */
+        public String getMethodName() {
+            return methodName;
+        }
+
+        /**
+         * @return the arguments passed, as text
+         */
+        public List<String> getArguments() {
+            return arguments;
+        }
+
+        /**
+         * @return the value returned, as text, or <code>null</code> if nothing (or <code>null</code>) was returned
+         */
+        public String getValueReturned() {
+            return valueReturned;
+        }
+
+        /**
+         * @return the exception thrown, as text, or <code>null</code> if none was thrown
+         */
+        public String getExceptionThrown() {
+            return exceptionThrown;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+            result.append(mockName).append('.').append(methodName).append('(');
+            for (int i = 0; i < arguments.size(); i++) {
+                if (i > 0) {
+                    result.append(", ");
+                }
+                result.append(arguments.get(i));
+            }
+            result.append(')');
+            if (exceptionThrown != null) {
+                result.append(", threw ").append(exceptionThrown);
+            } else if (returnedValue) {
+                result.append(", returned ").append(valueReturned);
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * Just enough of a JSON parser to read back what {@link InvocationLog} writes.
+     */
+    static private class Parser {
+        private final String line;
+        private int position = 0;
+
+        Parser(String line) {
+            this.line = line;
+        }
+
+        @SuppressWarnings("unchecked")
+        Entry parseEntry() throws IOException {
+            Map<String, Object> fields = new HashMap<String, Object>();
+            expect('{');
+            if (peek() != '}') {
+                do {
+                    String key = parseString();
+                    expect(':');
+                    fields.put(key, parseValue());
+                } while (accept(','));
+            }
+            expect('}');
+            List<String> arguments = (List<String>) fields.get("arguments");
+            return new Entry(
+                    (String) fields.get("thread"),
+                    (String) fields.get("mock"),
+                    (String) fields.get("method"),
+                    arguments != null ? arguments : Collections.<String>emptyList(),
+                    fields.containsKey("returned"),
+                    (String) fields.get("returned"),
+                    (String) fields.get("threw"));
+        }
+
+        private Object parseValue() throws IOException {
+            if (peek() == '[') {
+                List<String> result = new ArrayList<String>();
+                expect('[');
+                if (peek() != ']') {
+                    do {
+                        result.add(parseString());
+                    } while (accept(','));
+                }
+                expect(']');
+                return result;
+            }
+            return parseString();
+        }
+
+        private String parseString() throws IOException {
+            if (line.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            expect('"');
+            StringBuilder result = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return result.toString();
+                } else if (c != '\\') {
+                    result.append(c);
+                } else {
+                    c = next();
+                    switch (c) {
+                        case 'n':
+                            result.append('\n');
+                            break;
+                        case 'r':
+                            result.append('\r');
+                            break;
+                        case 't':
+                            result.append('\t');
+                            break;
+                        case 'u':
+                            if (position + 4 > line.length()) {
+                                throw malformed();
+                            }
+                            try {
+                                result.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw malformed();
+                            }
+                            position += 4;
+                            break;
+                        default:
+                            result.append(c);
+                    }
+                }
+            }
+        }
+
+        private char peek() throws IOException {
+            if (position >= line.length()) {
+                throw malformed();
+            }
+            return line.charAt(position);
+        }
+
+        private char next() throws IOException {
+            char result = peek();
+            position++;
+            return result;
+        }
+
+        private boolean accept(char c) throws IOException {
+            if (peek() == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws IOException {
+            if (next() != c) {
+                throw malformed();
+            }
+        }
+
+        private IOException malformed() {
+            return new IOException("malformed invocation log entry: " + line);
+        }
+    }
+}
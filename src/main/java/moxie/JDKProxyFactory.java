@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 class JDKProxyFactory<T> extends ProxyFactory<T> {
+    private static final MethodIntercept.SuperInvoker ZOMBIE_SUPER_INVOKER = new ZombieSuperInvoker("This is an interface mock - there are no superclass methods to invoke");
     private Constructor<T> constructor;
 
     @SuppressWarnings("unchecked")
@@ -51,7 +52,7 @@ class JDKProxyFactory<T> extends ProxyFactory<T> {
         try {
             return constructor.newInstance(new InvocationHandler() {
                 public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                    return methodIntercept.intercept(proxy, new MethodAdapter(method), args, new ZombieSuperInvoker("This is an interface mock - there are no superclass methods to invoke"));
+                    return methodIntercept.intercept(proxy, MethodAdapter.forMethod(method), args, ZOMBIE_SUPER_INVOKER);
                 }
             });
         } catch (InstantiationException e) {
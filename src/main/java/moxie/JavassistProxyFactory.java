@@ -26,7 +26,11 @@ import javassist.util.proxy.Proxy;
 import javassist.util.proxy.ProxyFactory;
 import javassist.util.proxy.ProxyObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.security.ProtectionDomain;
 
 class JavassistProxyFactory<T> extends ConcreteTypeProxyFactory<T> {
 
@@ -37,22 +41,108 @@ class JavassistProxyFactory<T> extends ConcreteTypeProxyFactory<T> {
     @Override
     @SuppressWarnings("unchecked")
     protected Class<? extends T> createEnhancedClass(Class<T> clazz, Class[] ancillaryTypes) {
-        ProxyFactory f = new ProxyFactory();
+        ProxyClassCache cache = ProxyClassCache.getInstance();
+        String cacheKey = cache != null ? cache.keyFor(ProxyFactory.class, clazz, ancillaryTypes) : null;
+        if (cacheKey == null) {
+            return newProxyFactory(clazz, ancillaryTypes).createClass();
+        }
+
+        CachingProxyFactory f = newProxyFactory(clazz, ancillaryTypes);
+        ProxyClassCache.CachedClass cached = cache.load(cacheKey, f.classLoader(), f.domain());
+        if (cached != null && setFilterSignature(cached.definedClass, cached.attachment)) {
+            return cached.definedClass;
+        }
+
+        Class result;
+        try {
+            result = createAndCacheClass(f, cache, cacheKey);
+        } catch (RuntimeException e) {
+            // Javassist names proxies with a counter, so on the (unlikely) chance that a class we loaded from the
+            // cache has the name Javassist just picked, try again with the next name.
+            result = createAndCacheClass(newProxyFactory(clazz, ancillaryTypes), cache, cacheKey);
+        }
+        return result;
+    }
+
+    private static CachingProxyFactory newProxyFactory(Class clazz, Class[] ancillaryTypes) {
+        CachingProxyFactory f = new CachingProxyFactory();
         f.setSuperclass(clazz);
         if (ancillaryTypes != null) {
             f.setInterfaces(ancillaryTypes);
         }
-        return f.createClass();
+        return f;
+    }
+
+    private static Class createAndCacheClass(CachingProxyFactory f, ProxyClassCache cache, String cacheKey) {
+        File scratchDirectory;
+        try {
+            scratchDirectory = cache.createScratchDirectory();
+            f.writeDirectory = scratchDirectory.getPath();
+        } catch (IOException e) {
+            return f.createClass();
+        } catch (LinkageError e) {
+            // pre-3.20 Javassist - writeDirectory was static then, so best not to touch it
+            return f.createClass();
+        }
+        try {
+            Class result = f.createClass();
+            File classFile = new File(scratchDirectory, result.getName().replace('.', File.separatorChar) + ".class");
+            byte[] filterSignature = getFilterSignature(result);
+            if (classFile.isFile() && filterSignature != null) {
+                try {
+                    cache.store(cacheKey, result.getName(), ProxyClassCache.readFile(classFile), filterSignature);
+                } catch (IOException e) {
+                    // oh well, we'll generate it again next time.
+                }
+            }
+            return result;
+        } finally {
+            ProxyClassCache.deleteRecursively(scratchDirectory);
+        }
+    }
+
+    // Javassist sets this static field on each proxy class it generates, so we must too.
+    private static final String FILTER_SIGNATURE_FIELD = "_filter_signature";
+
+    private static byte[] getFilterSignature(Class proxyClass) {
+        try {
+            Field field = proxyClass.getDeclaredField(FILTER_SIGNATURE_FIELD);
+            field.setAccessible(true);
+            return (byte[]) field.get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean setFilterSignature(Class proxyClass, byte[] filterSignature) {
+        try {
+            Field field = proxyClass.getDeclaredField(FILTER_SIGNATURE_FIELD);
+            field.setAccessible(true);
+            field.set(null, filterSignature);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static class CachingProxyFactory extends ProxyFactory {
+        ClassLoader classLoader() {
+            return getClassLoader();
+        }
+
+        ProtectionDomain domain() {
+            return getDomain();
+        }
     }
 
     @Override
     protected void decorateInstance(T result, final MethodIntercept methodIntercept) {
         MethodHandler mi = new MethodHandler() {
             public Object invoke(final Object proxy, final Method thisMethod, final Method proceed, Object[] args) throws Throwable {
-                return methodIntercept.intercept(proxy, new MethodAdapter(thisMethod), args, new MethodIntercept.SuperInvoker() {
+                return methodIntercept.intercept(proxy, MethodAdapter.forMethod(thisMethod), args, new MethodIntercept.SuperInvoker() {
                     public Object invokeSuper(Object[] args) throws Throwable {
                         if (proceed != null) {
-                            return proceed.invoke(proxy, args);
+                            return MoxieUtils.invokeMethod(proceed, proxy, args);
                         } else {
                             throw new MoxieZombieMethodInvocationError("Method not implemented in superclass: " + thisMethod.getName());
                         }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+/**
+ * Growable array of <code>long</code> values, used with {@link MoxieMatchers#captureLongTo(LongCapture)} to capture
+ * <code>long</code> method parameters for later inspection in your tests without keeping a wrapper object for each value.
+ * <p>
+ * Safe to use with mocks that are called from several threads at once.
+ */
+public class LongCapture {
+    private long[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty capture.
+     */
+    public LongCapture() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty capture with room for the given number of values before it needs to grow.
+     */
+    public LongCapture(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initial capacity cannot be less than zero");
+        }
+        values = new long[initialCapacity];
+    }
+
+    synchronized void add(long value) {
+        if (size == values.length) {
+            long[] newValues = new long[Math.max(16, size * 2)];
+            System.arraycopy(values, 0, newValues, 0, size);
+            values = newValues;
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @return the number of values captured
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the value captured at the given position (zero being the first)
+     * @throws IndexOutOfBoundsException if fewer values than that have been captured
+     */
+    public synchronized long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * @return the most recently captured value
+     * @throws IndexOutOfBoundsException if no values have been captured
+     */
+    public synchronized long getLast() {
+        return get(size - 1);
+    }
+
+    /**
+     * @return a copy of all values captured, in the order they were captured
+     */
+    public synchronized long[] toArray() {
+        long[] result = new long[size];
+        System.arraycopy(values, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * Discards all values captured so far.
+     */
+    public synchronized void clear() {
+        size = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(values[i]);
+        }
+        return result.append("]").toString();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import org.hamcrest.Matcher;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread stack of the matchers reported by {@link MoxieMatchers} calls, waiting to be claimed by the expression
+ * they appear in.  Backed by a pair of arrays, so reporting a matcher doesn't allocate anything beyond the matcher
+ * itself, and checking that nothing is pending costs next to nothing.
+ */
+class MatcherStack {
+    private Matcher[] matchers = new Matcher[8];
+    private Class[] expectedTypes = new Class[8];
+    private int size = 0;
+
+    void push(Matcher matcher, Class expectedType) {
+        if (size == matchers.length) {
+            Matcher[] newMatchers = new Matcher[size * 2];
+            Class[] newExpectedTypes = new Class[size * 2];
+            System.arraycopy(matchers, 0, newMatchers, 0, size);
+            System.arraycopy(expectedTypes, 0, newExpectedTypes, 0, size);
+            matchers = newMatchers;
+            expectedTypes = newExpectedTypes;
+        }
+        matchers[size] = matcher;
+        expectedTypes[size] = expectedType;
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the type expected by the matcher on top of the stack
+     */
+    Class peekExpectedType() {
+        return expectedTypes[size - 1];
+    }
+
+    Matcher pop() {
+        size--;
+        Matcher result = matchers[size];
+        matchers[size] = null;
+        expectedTypes[size] = null;
+        return result;
+    }
+
+    void clear() {
+        Arrays.fill(matchers, 0, size, null);
+        Arrays.fill(expectedTypes, 0, size, null);
+        size = 0;
+    }
+}
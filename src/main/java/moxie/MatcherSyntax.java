@@ -29,7 +29,6 @@ import org.hamcrest.core.IsEqual;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -37,33 +36,57 @@ import java.util.List;
  */
 class MatcherSyntax {
 
-    static private <T> T shouldFullyConsumeMatcherReports(T someCall) {
-        LinkedList<MatcherReport> matcherReports = MoxieMatchers.getMatcherReports();
-        if (!matcherReports.isEmpty()) {
-//            StringWriter sw = new StringWriter();
-//            PrintWriter pw = new PrintWriter(sw);
-//            pw.println("Too many MoxieMatchers calls were made for this expression.  Excess calls were as follows:");
-//            for (MatcherReport matcherReport : matcherReports) {
-//                matcherReport.getWhereInstantiated().printStackTrace(pw);
-//            }
-//            matcherReports.clear();
-//            throw new MoxieSyntaxError(sw.toString());
+    static private <T> T shouldFullyConsumeMatcherStack(MatcherStack matcherStack, T someCall) {
+        if (!matcherStack.isEmpty()) {
             throw new MoxieSyntaxError("Too many MoxieMatchers calls were made for this expression");
         }
         return someCall;
     }
 
     static <T> Matcher singleMatcherExpression(Class<T> expectedParameterType, T matchValue) {
-        return shouldFullyConsumeMatcherReports(singleMatcherFragment(expectedParameterType, matchValue));
+        MatcherStack matcherStack = MoxieMatchers.getMatcherStack();
+        if (matcherStack.isEmpty()) {
+            return new IsEqual(matchValue);
+        }
+        return shouldFullyConsumeMatcherStack(matcherStack, singleMatcherFragment(matcherStack, expectedParameterType, matchValue));
     }
 
     static List<Matcher> matcherListExpression(List<Class<?>> expectedParameterTypes, List matchValues) {
-        return shouldFullyConsumeMatcherReports(matcherListFragment(expectedParameterTypes, matchValues));
+        MatcherStack matcherStack = MoxieMatchers.getMatcherStack();
+        return shouldFullyConsumeMatcherStack(matcherStack, matcherListFragment(matcherStack, expectedParameterTypes, matchValues, false));
     }
 
-    @SuppressWarnings("unchecked")
     static <T> Matcher<T> singleMatcherFragment(Class<T> expectedParameterType, T matchValue) {
-        return matcherListFragment(Collections.<Class<?>>singletonList(expectedParameterType), Collections.singletonList(matchValue)).get(0);
+        return singleMatcherFragment(MoxieMatchers.getMatcherStack(), expectedParameterType, matchValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    static private <T> Matcher<T> singleMatcherFragment(MatcherStack matcherStack, Class<T> expectedParameterType, T matchValue) {
+        if (matcherStack.isEmpty()) {
+            return new IsEqual(matchValue);
+        }
+        return matcherListFragment(matcherStack, Collections.<Class<?>>singletonList(expectedParameterType), Collections.singletonList(matchValue), false).get(0);
+    }
+
+    /**
+     * Like {@link #singleMatcherFragment(Class, Object)}, but for an operand of {@link MoxieMatchers#not(Object) not()},
+     * so a plain value gets a matcher that {@link CompiledMatcher} can fold into the expression.
+     */
+    @SuppressWarnings("unchecked")
+    static Matcher operandFragment(Class expectedParameterType, Object matchValue) {
+        return matcherListFragment(MoxieMatchers.getMatcherStack(), Collections.<Class<?>>singletonList(expectedParameterType), Collections.singletonList(matchValue), true).get(0);
+    }
+
+    /**
+     * Like {@link #matcherListFragment(Class, Object)}, but for the operands of {@link MoxieMatchers#and(Object[]) and()}
+     * or {@link MoxieMatchers#or(Object[]) or()}, so plain values get matchers that {@link CompiledMatcher} can fold
+     * into the expression.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Matcher> operandListFragment(Class expectedParameterType, Object matchValuesArray) {
+        List matchValues = MoxieUtils.listFromArray(matchValuesArray);
+        List expectedParameterTypes = Collections.nCopies(matchValues.size(), expectedParameterType);
+        return matcherListFragment(MoxieMatchers.getMatcherStack(), expectedParameterTypes, matchValues, true);
     }
 
     static List<Matcher> matcherListFragment(Class expectedParameterType, Object matchValuesArray) {
@@ -74,17 +97,16 @@ class MatcherSyntax {
     @SuppressWarnings("unchecked")
     static List<Matcher> matcherListFragment(Class expectedParameterType, List matchValues) {
         List expectedParameterTypes = Collections.nCopies(matchValues.size(), expectedParameterType);
-        return matcherListFragment(expectedParameterTypes, matchValues);
+        return matcherListFragment(MoxieMatchers.getMatcherStack(), expectedParameterTypes, matchValues, false);
     }
 
     @SuppressWarnings("unchecked")
-    static List<Matcher> matcherListFragment(List<Class<?>> expectedParameterTypes, List matchValues) {
-        LinkedList<MatcherReport> matcherReports = MoxieMatchers.getMatcherReports();
-        List<Matcher> matchers = new ArrayList<Matcher>();
+    static private List<Matcher> matcherListFragment(MatcherStack matcherStack, List<Class<?>> expectedParameterTypes, List matchValues, boolean operands) {
+        List<Matcher> matchers = new ArrayList<Matcher>(matchValues.size());
 
-        if (matcherReports.isEmpty()) {
+        if (matcherStack.isEmpty()) {
             for (Object matchValue : matchValues) {
-                matchers.add(new IsEqual(matchValue));
+                matchers.add(equalityMatcher(matchValue, operands));
             }
             return matchers;
         }
@@ -92,22 +114,22 @@ class MatcherSyntax {
         for (int i = matchValues.size() - 1; i >= 0; i--) {
             Object matchValue = matchValues.get(i);
             Class<?> paramType = expectedParameterTypes.get(i);
-            if (!MoxieUtils.isDefaultValue(matchValue, paramType) && (matcherReports.isEmpty() || !MoxieUtils.isDefaultValue(matchValue, matcherReports.getLast().getExpectedType()))) {
-                matchers.add(0, new IsEqual(matchValue));
-            } else if (matcherReports.isEmpty()) {
+            if (!MoxieUtils.isDefaultValue(matchValue, paramType) && (matcherStack.isEmpty() || !MoxieUtils.isDefaultValue(matchValue, matcherStack.peekExpectedType()))) {
+                matchers.add(0, equalityMatcher(matchValue, operands));
+            } else if (matcherStack.isEmpty()) {
                 // TODO nicer exception - matcher syntax error
                 throw new IllegalArgumentException("ambiguous partially-specified matcher invocation - please use matchers for all method parameters having default value");
             } else {
-                Class expectedType = matcherReports.getLast().getExpectedType();
+                Class expectedType = matcherStack.peekExpectedType();
                 Class expectedTypeBoxed = MoxieUtils.toNonPrimitive(expectedType);
                 Class paramTypeBoxed = MoxieUtils.toNonPrimitive(paramType);
 
                 if (expectedType == null || expectedType.isInterface() || paramType == null || paramType.isInterface()) {
                     // can't directly compare arg types, so presume matcher is what we want
-                    matchers.add(0, matcherReports.removeLast().getMatcher());
+                    matchers.add(0, matcherStack.pop());
                 } else if (expectedTypeBoxed.isAssignableFrom(paramTypeBoxed) || paramTypeBoxed.isAssignableFrom(expectedTypeBoxed)) {
                     // types are compatible, so matcher should be OK
-                    matchers.add(0, matcherReports.removeLast().getMatcher());
+                    matchers.add(0, matcherStack.pop());
                 } else {
                     // does user actually want to match on a default value?
                     // TODO nicer exception - matcher syntax error
@@ -118,25 +140,40 @@ class MatcherSyntax {
         return matchers;
     }
 
+    @SuppressWarnings("unchecked")
+    static private Matcher equalityMatcher(Object matchValue, boolean operand) {
+        return operand ? CompiledMatcher.equalTo(matchValue) : new IsEqual(matchValue);
+    }
+
     @SuppressWarnings("unchecked")
     static List<Matcher> methodCall(InvocableAdapter invocable, Object[] params) throws IllegalArgumentException {
+        MatcherStack matcherStack = MoxieMatchers.getMatcherStack();
+        if (matcherStack.isEmpty() && !invocable.isVarArgs()) {
+            // no matchers pending, so every argument is matched on equality - skip copying everything into lists
+            int paramCount = params != null ? params.length : 0;
+            List<Matcher> argMatchers = new ArrayList<Matcher>(paramCount);
+            for (int i = 0; i < paramCount; i++) {
+                argMatchers.add(new IsEqual(params[i]));
+            }
+            return argMatchers;
+        }
+
         List paramsList = params == null ? Collections.emptyList() : new ArrayList(Arrays.asList(params));
-        LinkedList<MatcherReport> matcherReports = MoxieMatchers.getMatcherReports();
         List<Class<?>> paramTypes = new ArrayList<Class<?>>(Arrays.asList(invocable.getParameterTypes()));
         Matcher varargMatcher = null;
         if (invocable.isVarArgs()) {
             Class<?> paramType = paramTypes.remove(paramTypes.size() - 1);
             Object varParamsArray = paramsList.remove(paramsList.size() - 1);
-            if (varParamsArray == null && !matcherReports.isEmpty() && matcherReports.getLast().getExpectedType() != null && matcherReports.getLast().getExpectedType().isArray()) {
+            if (varParamsArray == null && !matcherStack.isEmpty() && matcherStack.peekExpectedType() != null && matcherStack.peekExpectedType().isArray()) {
                 // If varargs array is null and there's an array matcher on top of the stack, then it applies to the varargs array.
-                varargMatcher = matcherReports.removeLast().getMatcher();
+                varargMatcher = matcherStack.pop();
             } else {
                 // construct array matcher to match elements of varargs array
                 List<Matcher> varArgMatchers = MatcherSyntax.matcherListFragment(paramType.getComponentType(), varParamsArray);
                 varargMatcher = new IsArray(varArgMatchers);
             }
         }
-        List<Matcher> argMatchers = MatcherSyntax.matcherListExpression(paramTypes, paramsList);
+        List<Matcher> argMatchers = shouldFullyConsumeMatcherStack(matcherStack, matcherListFragment(matcherStack, paramTypes, paramsList, false));
         if (varargMatcher != null) {
             argMatchers.add(varargMatcher);
         }
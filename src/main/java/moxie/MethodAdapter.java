@@ -21,14 +21,65 @@
  */
 package moxie;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 class MethodAdapter implements InvocableAdapter {
+
+    // One adapter per method, so that the proxies needn't create one per call, and adapters can usually be compared
+    // by identity.  They're kept in a table per declaring class, which only the adapters themselves hold on to: this
+    // map mustn't keep any class alive, as PowerMock loads its classes afresh in a new class loader for every test
+    // class.  A table that's been collected is simply built again.
+    private static final Map<Class<?>, WeakReference<ConcurrentMap<Method, MethodAdapter>>> adapters =
+            new ConcurrentWeakIdentityMap<Class<?>, WeakReference<ConcurrentMap<Method, MethodAdapter>>>();
+
     private final Method method;
+    private final ConcurrentMap<Method, MethodAdapter> declaringClassAdapters;  // only here to keep the table alive
+    private final Class<?>[] parameterTypes;
+    private final Class<?> returnType;
+    private final int hashCode;
+    private final Interception.MethodMatcher objectMethod;
 
-    public MethodAdapter(Method method) {
+    private MethodAdapter(Method method, ConcurrentMap<Method, MethodAdapter> declaringClassAdapters) {
         this.method = method;
+        this.declaringClassAdapters = declaringClassAdapters;
+        this.parameterTypes = method.getParameterTypes();
+        this.returnType = method.getReturnType();
+        this.hashCode = method.hashCode();
+        this.objectMethod = Interception.MethodMatcher.objectMethodMatching(method);
+    }
+
+    static MethodAdapter forMethod(Method method) {
+        ConcurrentMap<Method, MethodAdapter> classAdapters = adaptersFor(method.getDeclaringClass());
+        MethodAdapter result = classAdapters.get(method);
+        if (result == null) {
+            MethodAdapter newAdapter = new MethodAdapter(method, classAdapters);
+            result = classAdapters.putIfAbsent(method, newAdapter);
+            if (result == null) {
+                result = newAdapter;
+            }
+        }
+        return result;
+    }
+
+    private static ConcurrentMap<Method, MethodAdapter> adaptersFor(Class<?> declaringClass) {
+        WeakReference<ConcurrentMap<Method, MethodAdapter>> reference = adapters.get(declaringClass);
+        ConcurrentMap<Method, MethodAdapter> result = reference != null ? reference.get() : null;
+        if (result == null) {
+            synchronized (adapters) {
+                reference = adapters.get(declaringClass);
+                result = reference != null ? reference.get() : null;
+                if (result == null) {
+                    result = new ConcurrentHashMap<Method, MethodAdapter>();
+                    adapters.put(declaringClass, new WeakReference<ConcurrentMap<Method, MethodAdapter>>(result));
+                }
+            }
+        }
+        return result;
     }
 
     public boolean isVarArgs() {
@@ -42,7 +93,7 @@ class MethodAdapter implements InvocableAdapter {
     }
 
     public Class getReturnType() {
-        return method.getReturnType();
+        return returnType;
     }
 
     public Class[] getExceptionTypes() {
@@ -57,7 +108,15 @@ class MethodAdapter implements InvocableAdapter {
         return method.getDeclaringClass();
     }
 
+    /**
+     * @return which of {@link Object}'s toString/equals/hashCode/finalize methods this is (or overrides), if any
+     */
+    Interception.MethodMatcher getObjectMethod() {
+        return objectMethod;
+    }
+
     public boolean matches(InvocableAdapter o) {
+        if (this == o) return true;
         if (!(o instanceof MethodAdapter)) return false;
         MethodAdapter that = (MethodAdapter) o;
         if (method.equals(that.method)) return true;
@@ -65,8 +124,8 @@ class MethodAdapter implements InvocableAdapter {
         // Right, so maybe it's an interface method...
 
         // Needs to have the same name and arity.
-        Class<?>[] thisParamTypes = this.method.getParameterTypes();
-        Class<?>[] thatParamTypes = that.method.getParameterTypes();
+        Class<?>[] thisParamTypes = this.parameterTypes;
+        Class<?>[] thatParamTypes = that.parameterTypes;
         if (!(this.method.getName().equals(that.method.getName()) &&
                 thisParamTypes.length == thatParamTypes.length)) return false;
 
@@ -74,7 +133,7 @@ class MethodAdapter implements InvocableAdapter {
         if (!that.method.getDeclaringClass().isAssignableFrom(this.method.getDeclaringClass())) return false;
 
         // Return types must be plausible.
-        if (!that.method.getReturnType().isAssignableFrom(this.method.getReturnType())) return false;
+        if (!that.returnType.isAssignableFrom(this.returnType)) return false;
 
         // Parameter types must be plausible.
         for (int i = 0; i < thisParamTypes.length; i++) {
@@ -84,8 +143,11 @@ class MethodAdapter implements InvocableAdapter {
         return true;
     }
 
+    /**
+     * @return the method's parameter types - shared, so don't modify
+     */
     public Class<?>[] getParameterTypes() {
-        return method.getParameterTypes();
+        return parameterTypes;
     }
 
     public Method getMethod() {
@@ -94,12 +156,12 @@ class MethodAdapter implements InvocableAdapter {
 
     @Override
     public boolean equals(Object o) {
-        return (o instanceof MethodAdapter) &&  method.equals(((MethodAdapter) o).method);
+        return o == this || ((o instanceof MethodAdapter) && method.equals(((MethodAdapter) o).method));
     }
 
     @Override
     public int hashCode() {
-        return method.hashCode();
+        return hashCode;
     }
 
     @Override
@@ -34,6 +34,6 @@ class MethodInterceptAdapter implements InvocationHandler {
     }
 
     public Object invoke(final Object proxy, final Method method, Object[] args) throws Throwable {
-        return methodIntercept.intercept(proxy, new MethodAdapter(method), args, new SimpleSuperInvoker(superClass, method, proxy));
+        return methodIntercept.intercept(proxy, MethodAdapter.forMethod(method), args, new SimpleSuperInvoker(superClass, method, proxy));
     }
 }
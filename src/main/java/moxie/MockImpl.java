@@ -22,10 +22,14 @@
 
 package moxie;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class MockImpl<T> extends ObjectInterception<T> {
 
+    private MethodBehavior hashCodeBehavior;
+
     MockImpl(Class<T> clazz, String name, MoxieFlags flags, List<Invocation> invocations, Class[] constructorArgTypes, Object[] constructorArgs) {
         super(clazz, name, flags, instantiationStackTrace(name, flags), constructorArgTypes, constructorArgs);
     }
@@ -48,21 +52,47 @@ class MockImpl<T> extends ObjectInterception<T> {
         } else if (TO_STRING.matches(invocable)) {
             return new ReturnValueMethodBehavior("[mock object \"" + name + "\"]");
         } else if (EQUALS.matches(invocable)) {
-            return new ReturnValueMethodBehavior(args[0] == proxy);
+            return args[0] == proxy ? ReturnValueMethodBehavior.TRUE : ReturnValueMethodBehavior.FALSE;
         } else if (HASH_CODE.matches(invocable)) {
-            return new ReturnValueMethodBehavior(System.identityHashCode(proxy));
+            if (proxy == null) {
+                // called from a constructor, before there's a proxy whose hash code could be kept
+                return new ReturnValueMethodBehavior(System.identityHashCode(proxy));
+            }
+            if (hashCodeBehavior == null) {
+                hashCodeBehavior = new ReturnValueMethodBehavior(System.identityHashCode(proxy));
+            }
+            return hashCodeBehavior;
         } else {
-            return new ReturnValueMethodBehavior(MoxieUtils.defaultValue(invocable.getReturnType()));
+            return ReturnValueMethodBehavior.defaultValueFor(invocable.getReturnType());
         }
     }
 
     private static class ReturnValueMethodBehavior implements MethodBehavior {
+        static final ReturnValueMethodBehavior TRUE = new ReturnValueMethodBehavior(Boolean.TRUE);
+        static final ReturnValueMethodBehavior FALSE = new ReturnValueMethodBehavior(Boolean.FALSE);
+        static private final ReturnValueMethodBehavior NULL = new ReturnValueMethodBehavior(null);
+
+        // one shared instance per primitive type, so stubbing out calls to methods returning primitives doesn't allocate
+        static private final Map<Class, ReturnValueMethodBehavior> DEFAULT_VALUES = new HashMap<Class, ReturnValueMethodBehavior>();
+        static {
+            for (Class type : new Class[]{Boolean.TYPE, Character.TYPE, Byte.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE}) {
+                ReturnValueMethodBehavior behavior = new ReturnValueMethodBehavior(MoxieUtils.defaultValue(type));
+                DEFAULT_VALUES.put(type, behavior);
+                DEFAULT_VALUES.put(MoxieUtils.toNonPrimitive(type), behavior);
+            }
+        }
+
         private final Object toBeReturned;
 
         public ReturnValueMethodBehavior(Object toBeReturned) {
             this.toBeReturned = toBeReturned;
         }
 
+        static ReturnValueMethodBehavior defaultValueFor(Class returnType) {
+            ReturnValueMethodBehavior result = DEFAULT_VALUES.get(returnType);
+            return result != null ? result : NULL;
+        }
+
         public Object invoke() {
             return toBeReturned;
         }
@@ -22,6 +22,8 @@
 
 package moxie;
 
+import java.util.concurrent.Callable;
+
 /**
  *
  * Static class of convenience methods for Moxie, a wicked good Java mocking library.
@@ -47,11 +49,20 @@ package moxie;
  * @see moxie.MoxieMatchers
  */
 public abstract class Moxie extends MoxieMatchers {
-    static MoxieControl instance = MoxieUtils.createThreadLocalProxy(MoxieControl.class, new MoxieUtils.Factory<MoxieControl>() {
+    static final String INHERITABLE_CONTROL_PROPERTY = "moxie.inheritableControl";
+
+    static private final ThreadLocal<MoxieControl> controls = Boolean.getBoolean(INHERITABLE_CONTROL_PROPERTY)
+            ? new InheritableThreadLocal<MoxieControl>() : new ThreadLocal<MoxieControl>();
+
+    static private final MoxieUtils.Factory<MoxieControl> controlFactory = new MoxieUtils.Factory<MoxieControl>() {
         public MoxieControl create() {
             return new MoxieControlImpl();
         }
-    });
+    };
+
+    // Handed out by threadLocalControl(); the static methods below go straight to the thread's control instead,
+    // so they don't pay for proxy dispatch and reflection on every call.
+    static MoxieControl instance = MoxieUtils.createThreadLocalProxy(MoxieControl.class, controls, controlFactory);
 
     private Moxie() {
     }
@@ -65,6 +76,15 @@ public abstract class Moxie extends MoxieMatchers {
      * see {@link MoxieRule#getControl() MoxieRule.getControl()}.
      * <p>
      *
+     * Threads normally start out with a {@link MoxieControl} of their own.  If the <code>moxie.inheritableControl</code>
+     * system property is set to <code>true</code>, a new thread (including a virtual thread) will instead share the
+     * instance of the thread that created it.  Threads that are pooled or created on demand, such as
+     * {@link java.util.concurrent.ForkJoinPool ForkJoinPool} workers, don't inherit anything useful this way - use
+     * {@link #propagateThreadLocalControl(Runnable) propagateThreadLocalControl()} to hand the instance to
+     * tasks running on them.  A shared instance may be used to create, check and verify mocks from all of these
+     * threads at once.
+     * <p>
+     *
      * @return a proxy to a thread-local instance of {@link MoxieControl}
      */
     static public MoxieControl threadLocalControl() {
@@ -81,6 +101,74 @@ public abstract class Moxie extends MoxieMatchers {
         return new MoxieControlImpl();
     }
 
+    /**
+     *
+     * Wraps a task so that, on whichever thread it runs, it uses the calling thread's
+     * {@link #threadLocalControl() thread-local instance} of {@link MoxieControl}.
+     * <p>
+     *
+     * Use this when handing tasks that use the static methods on this class to an
+     * {@link java.util.concurrent.Executor Executor}.  Once the task finishes, the thread it ran on goes back to
+     * the instance it had before, if any.
+     * <p>
+     *
+     * @param task task to be run with this thread's {@link MoxieControl}
+     * @return a task that runs the given task with this thread's {@link MoxieControl}
+     */
+    static public Runnable propagateThreadLocalControl(final Runnable task) {
+        final MoxieControl control = control();
+        return new Runnable() {
+            public void run() {
+                MoxieControl previous = controls.get();
+                controls.set(control);
+                try {
+                    task.run();
+                } finally {
+                    restoreControl(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     *
+     * Wraps a task so that, on whichever thread it runs, it uses the calling thread's
+     * {@link #threadLocalControl() thread-local instance} of {@link MoxieControl}.
+     * <p>
+     *
+     * @param task task to be run with this thread's {@link MoxieControl}
+     * @param <V>  result type of the task
+     * @return a task that runs the given task with this thread's {@link MoxieControl}
+     * @see #propagateThreadLocalControl(Runnable)
+     */
+    static public <V> Callable<V> propagateThreadLocalControl(final Callable<V> task) {
+        final MoxieControl control = control();
+        return new Callable<V>() {
+            public V call() throws Exception {
+                MoxieControl previous = controls.get();
+                controls.set(control);
+                try {
+                    return task.call();
+                } finally {
+                    restoreControl(previous);
+                }
+            }
+        };
+    }
+
+    static private MoxieControl control() {
+        return MoxieUtils.getOrCreate(controls, controlFactory);
+    }
+
+    static private void restoreControl(MoxieControl previous) {
+        // don't leave an entry behind on threads that never had one - there may be a great many of them
+        if (previous != null) {
+            controls.set(previous);
+        } else {
+            controls.remove();
+        }
+    }
+
 
     ////////////////////////////////////////////////////////////////////
 
@@ -93,7 +181,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#mock(Class)
      */
     static public <T> T mock(Class<T> clazz) {
-        return instance.mock(clazz);
+        return control().mock(clazz);
     }
 
     /**
@@ -106,7 +194,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#mock(Class, String)
      */
     static public <T> T mock(Class<T> clazz, String name) {
-        return instance.mock(clazz, name);
+        return control().mock(clazz, name);
     }
 
     /**
@@ -119,7 +207,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#mock(Class, MoxieOptions...)
      */
     static public <T> T mock(Class<T> clazz, MoxieOptions... options) {
-        return instance.mock(clazz, options);
+        return control().mock(clazz, options);
     }
 
     /**
@@ -133,7 +221,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#mock(Class, String, MoxieOptions...)
      */
     static public <T> T mock(Class<T> clazz, String name, MoxieOptions... options) {
-        return instance.mock(clazz, name, options);
+        return control().mock(clazz, name, options);
     }
 
     /**
@@ -155,7 +243,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, Object... constructorArgs) {
-        return instance.mock(clazz, constructorArgs);
+        return control().mock(clazz, constructorArgs);
     }
 
     /**
@@ -178,7 +266,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, Class[] constructorArgTypes, Object[] constructorArgs) {
-        return instance.mock(clazz, constructorArgTypes, constructorArgs);
+        return control().mock(clazz, constructorArgTypes, constructorArgs);
     }
 
     /**
@@ -201,7 +289,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, String name, Object[] constructorArgs) {
-        return instance.mock(clazz, name, constructorArgs);
+        return control().mock(clazz, name, constructorArgs);
     }
 
     /**
@@ -225,7 +313,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, String name, Class[] constructorArgTypes, Object[] constructorArgs) {
-        return instance.mock(clazz, name, constructorArgTypes, constructorArgs);
+        return control().mock(clazz, name, constructorArgTypes, constructorArgs);
     }
 
     /**
@@ -248,7 +336,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, Object[] constructorArgs, MoxieOptions... options) {
-        return instance.mock(clazz, constructorArgs, options);
+        return control().mock(clazz, constructorArgs, options);
     }
 
     /**
@@ -272,7 +360,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, Class[] constructorArgTypes, Object[] constructorArgs, MoxieOptions... options) {
-        return instance.mock(clazz, constructorArgTypes, constructorArgs, options);
+        return control().mock(clazz, constructorArgTypes, constructorArgs, options);
     }
 
     /**
@@ -296,7 +384,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, String name, Object[] constructorArgs, MoxieOptions... options) {
-        return instance.mock(clazz, name, constructorArgs, options);
+        return control().mock(clazz, name, constructorArgs, options);
     }
 
     /**
@@ -321,7 +409,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @return a new mock object
      */
     static public <T> T mock(Class<T> clazz, String name, Class[] constructorArgTypes, Object[] constructorArgs, MoxieOptions... options) {
-        return instance.mock(clazz, name, constructorArgTypes, constructorArgs, options);
+        return control().mock(clazz, name, constructorArgTypes, constructorArgs, options);
     }
 
 
@@ -336,7 +424,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#spy(Object, MoxieOptions...)
      */
     static public <T> T spy(T realObject, MoxieOptions... options) {
-        return instance.spy(realObject, options);
+        return control().spy(realObject, options);
     }
 
     /**
@@ -351,7 +439,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#spy(Object, String, MoxieOptions...)
      */
     static public <T> T spy(T realObject, String name, MoxieOptions... options) {
-        return instance.spy(realObject, name, options);
+        return control().spy(realObject, name, options);
     }
 
     /**
@@ -373,7 +461,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#group(MoxieOptions...)
      */
     static public Group group(MoxieOptions... options) {
-        return instance.group(options);
+        return control().group(options);
     }
 
     /**
@@ -396,7 +484,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#group(String, MoxieOptions...)
      */
     static public Group group(String name, MoxieOptions... options) {
-        return instance.group(name, options);
+        return control().group(name, options);
     }
 
     /**
@@ -413,7 +501,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#expect(Object)
      */
     static public <T> ObjectExpectation<T> expect(T mockObject) {
-        return instance.expect(mockObject);
+        return control().expect(mockObject);
     }
 
     /**
@@ -430,7 +518,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#expect(Class)
      */
     static public <T> ClassExpectation<T> expect(Class<T> clazz) {
-        return instance.expect(clazz);
+        return control().expect(clazz);
     }
 
     /**
@@ -445,7 +533,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#expect()
      */
     static public LambdaExpectation<Object> expect() {
-        return instance.expect();
+        return control().expect();
     }
 
     /**
@@ -464,7 +552,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#expectVoid(ThrowingRunnable)
      */
     static public LambdaExpectation<Void> expectVoid(ThrowingRunnable lambda) {
-        return instance.expectVoid(lambda);
+        return control().expectVoid(lambda);
     }
 
     /**
@@ -484,7 +572,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#expect(ThrowingSupplier)
      */
     static public <R> LambdaExpectation<R> expect(ThrowingSupplier<R> lambda) {
-        return instance.expect(lambda);
+        return control().expect(lambda);
     }
 
     /**
@@ -501,7 +589,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#stub(Object)
      */
     static public <T> ObjectExpectation<T> stub(T mockObject) {
-        return instance.stub(mockObject);
+        return control().stub(mockObject);
     }
 
     /**
@@ -517,7 +605,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#stub(Class)
      */
     static public <T> ClassExpectation<T> stub(Class<T> clazz) {
-        return instance.stub(clazz);
+        return control().stub(clazz);
     }
 
     /**
@@ -535,7 +623,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#stub()
      */
     static public LambdaExpectation<Object> stub() {
-        return instance.stub();
+        return control().stub();
     }
 
     /**
@@ -554,7 +642,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#stubVoid(ThrowingRunnable)
      */
     static public LambdaExpectation<Void> stubVoid(ThrowingRunnable lambda) {
-        return instance.stubVoid(lambda);
+        return control().stubVoid(lambda);
     }
 
     /**
@@ -574,7 +662,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#stub(ThrowingSupplier)
      */
     static public <R> LambdaExpectation<R> stub(ThrowingSupplier<R> lambda) {
-        return instance.stub(lambda);
+        return control().stub(lambda);
     }
 
     /**
@@ -591,7 +679,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#check(Object)
      */
     static public <T> ObjectCheck<T> check(T mockObject) {
-        return instance.check(mockObject);
+        return control().check(mockObject);
     }
 
     /**
@@ -607,7 +695,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#check(Class)
      */
     static public ClassCheck check(Class clazz) {
-        return instance.check(clazz);
+        return control().check(clazz);
     }
 
     /**
@@ -622,7 +710,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#check()
      */
     static public LambdaCheck<Object> check() {
-        return instance.check();
+        return control().check();
     }
 
     /**
@@ -641,7 +729,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#checkVoid(ThrowingRunnable)
      */
     static public LambdaCheck<Void> checkVoid(ThrowingRunnable lambda) {
-        return instance.checkVoid(lambda);
+        return control().checkVoid(lambda);
     }
 
     /**
@@ -661,7 +749,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#check(ThrowingSupplier)
      */
     static public <R> LambdaCheck<R> check(ThrowingSupplier<R> lambda) {
-        return instance.check(lambda);
+        return control().check(lambda);
     }
 
     /**
@@ -676,7 +764,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#checkNothingElseHappened(Object...)
      */
     static public void checkNothingElseHappened(Object... mockObjects) {
-        instance.checkNothingElseHappened(mockObjects);
+        control().checkNothingElseHappened(mockObjects);
     }
 
     /**
@@ -692,7 +780,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#checkNothingElseUnexpectedHappened(Object...)
      */
     static public void checkNothingElseUnexpectedHappened(Object... mockObjects) {
-        instance.checkNothingElseUnexpectedHappened(mockObjects);
+        control().checkNothingElseUnexpectedHappened(mockObjects);
     }
 
     /**
@@ -711,7 +799,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#verify(Object...)
      */
     static public void verify(Object... mockObjects) {
-        instance.verify(mockObjects);
+        control().verify(mockObjects);
     }
 
     /**
@@ -729,7 +817,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#verifySoFar(Object...)
      */
     static public void verifySoFar(Object... mockObjects) {
-        instance.verifySoFar(mockObjects);
+        control().verifySoFar(mockObjects);
     }
 
     /**
@@ -745,7 +833,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#verifyAndReset(Object...)
      */
     static public void verifyAndReset(Object... mockObjects) {
-        instance.verifyAndReset(mockObjects);
+        control().verifyAndReset(mockObjects);
     }
 
     /**
@@ -761,7 +849,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#verifyAndReset(Object, MoxieOptions, MoxieOptions...)
      */
     static public void verifyAndReset(Object mockObject, MoxieOptions firstOption, MoxieOptions... otherOptions) {
-        instance.verifyAndReset(mockObject, firstOption, otherOptions);
+        control().verifyAndReset(mockObject, firstOption, otherOptions);
     }
 
     /**
@@ -780,7 +868,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#reset(Object...)
      */
     static public void reset(Object... mockObjects) {
-        instance.reset(mockObjects);
+        control().reset(mockObjects);
     }
 
     /**
@@ -799,7 +887,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#reset(Object, MoxieOptions, MoxieOptions...)
      */
     static public void reset(Object mockObject, MoxieOptions firstOption, MoxieOptions... otherOptions) {
-        instance.reset(mockObject, firstOption, otherOptions);
+        control().reset(mockObject, firstOption, otherOptions);
     }
 
     /**
@@ -814,7 +902,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#deactivate(Object...)
      */
     static public void deactivate(Object... mockObjects) {
-        instance.deactivate(mockObjects);
+        control().deactivate(mockObjects);
     }
 
     /**
@@ -829,7 +917,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see moxie.MoxieControl#checkNoActiveMocks()
      */
     static public void checkNoActiveMocks() {
-        instance.checkNoActiveMocks();
+        control().checkNoActiveMocks();
     }
 
     /**
@@ -848,7 +936,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#autoMock(Object...)
      */
     static public Object[] autoMock(Object... testComponents) {
-       return instance.autoMock(testComponents);
+       return control().autoMock(testComponents);
     }
 
     /**
@@ -858,7 +946,7 @@ public abstract class Moxie extends MoxieMatchers {
      * @see MoxieControl#autoUnMock(Object...)
      */
     static public void autoUnMock(Object... testComponents) {
-        instance.autoUnMock(testComponents);
+        control().autoUnMock(testComponents);
     }
 
 }
@@ -573,6 +573,11 @@ public interface MoxieControl {
      * If no parameters are given, verification is performed against all active mock/spy objects.
      * <p>
      *
+     * When verifying many mocks at once, setting the <code>moxie.parallelVerification</code> system property to
+     * <code>true</code> will verify them on several threads, reporting all failures together in a single
+     * {@link MoxieFailedVerificationError}.  Groups are still verified one at a time, in order.
+     * <p>
+     *
      * @param mockObjects one or more mock/spy objects to be checked
      */
     void verify(Object... mockObjects);
@@ -34,13 +34,16 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class MoxieControlImpl implements MoxieControl {
 
-    private final IdentityHashMap<Object, Verifiable> mocksAndGroups = new IdentityHashMap<Object, Verifiable>();
-    private final IdentityHashMap<Object, Map<String, Object>> valuesOverwrittenByAutoMock = new IdentityHashMap<Object, Map<String, Object>>();
+    // A control may be shared by several threads (see Moxie.propagateThreadLocalControl()), so both registries are
+    // synchronized; iteration over either one must hold the map's lock and work from a copy.
+    private final Map<Object, Verifiable> mocksAndGroups = Collections.synchronizedMap(new IdentityHashMap<Object, Verifiable>());
+    private final Map<Object, Map<String, Object>> valuesOverwrittenByAutoMock = Collections.synchronizedMap(new IdentityHashMap<Object, Map<String, Object>>());
     private final List<Invocation> invocations = Collections.synchronizedList(new ArrayList<Invocation>());
-    private int groupNameCounter = 0;
+    private final AtomicInteger groupNameCounter = new AtomicInteger();
 
 
     public <T> T mock(Class<T> clazz) {
@@ -123,7 +126,7 @@ class MoxieControlImpl implements MoxieControl {
 
     public Group group(String name, MoxieOptions... options) {
         if (name == null) {
-            name = "[unnamed group " + (groupNameCounter++);
+            name = "[unnamed group " + groupNameCounter.getAndIncrement();
             String externalCallerString = MoxieUtils.getExternalCallerString();
             if (externalCallerString != null) {
                 name += " (" + externalCallerString + ") ";
@@ -208,6 +211,10 @@ class MoxieControlImpl implements MoxieControl {
         ArrayList<Invocation> uncheckedInvocations = new ArrayList<Invocation>();
         for (Object mockProxy : mocksFor(mockObjects)) {
             Interception interception = getInterceptionFromProxy(mockProxy);
+            if (!interception.recordsHistory()) {
+                // NO_HISTORY - nothing recorded, so nothing unchecked
+                continue;
+            }
             for (Invocation invocation : (List<Invocation>) interception.getInvocations()) {
                 if (invocation.getCheckSatisfied() == null) {
                     uncheckedInvocations.add(invocation);
@@ -223,6 +230,10 @@ class MoxieControlImpl implements MoxieControl {
         ArrayList<Invocation> uncheckedInvocations = new ArrayList<Invocation>();
         for (Object mockProxy : mocksFor(mockObjects)) {
             Interception interception = getInterceptionFromProxy(mockProxy);
+            if (!interception.recordsHistory()) {
+                // NO_HISTORY - nothing recorded, so nothing unchecked
+                continue;
+            }
             for (Invocation invocation : (List<Invocation>) interception.getInvocations()) {
                 if (invocation.getCheckSatisfied() == null && invocation.getExpectationSatisfied() == null) {
                     uncheckedInvocations.add(invocation);
@@ -251,20 +262,21 @@ class MoxieControlImpl implements MoxieControl {
     }
 
     <T> ClassInterception<T> getInterceptionFromClass(Class<T> clazz, MoxieOptions... options) {
-        @SuppressWarnings("unchecked")
-        ClassInterception<T> result = (ClassInterception<T>) mocksAndGroups.get(clazz);
-        if (result == null) {
-            MoxieFlags flags = MoxieOptions.mergeWithDefaults(MoxieOptions.MOCK_DEFAULTS, options);
-            InstantiationStackTrace instantiationStackTrace = MoxieUtils.unbox(flags.isTracing(), false) ? new InstantiationStackTrace("class mock \"" + clazz.getSimpleName() + "\" was instantiated here") : null;
-            mocksAndGroups.put(clazz, result = new ClassInterception<T>(clazz, clazz.getSimpleName(), flags, instantiationStackTrace));
+        synchronized (mocksAndGroups) {
+            @SuppressWarnings("unchecked")
+            ClassInterception<T> result = (ClassInterception<T>) mocksAndGroups.get(clazz);
+            if (result == null) {
+                MoxieFlags flags = MoxieOptions.mergeWithDefaults(MoxieOptions.MOCK_DEFAULTS, options);
+                InstantiationStackTrace instantiationStackTrace = MoxieUtils.unbox(flags.isTracing(), false) ? new InstantiationStackTrace("class mock \"" + clazz.getSimpleName() + "\" was instantiated here") : null;
+                mocksAndGroups.put(clazz, result = new ClassInterception<T>(clazz, clazz.getSimpleName(), flags, instantiationStackTrace));
+            }
+            return result;
         }
-        return result;
     }
 
     public void verify(Object... mockObjects) {
-        for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
-            getVerifiableFromProxy(mockProxy).verify();
-        }
+        InvocationLog.flushInstance();
+        verifyAll(mocksAndGroupsFor(mockObjects));
         for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
             getVerifiableFromProxy(mockProxy).verifyNoBackgroundErrors();
             mocksAndGroups.remove(mockProxy);
@@ -272,19 +284,16 @@ class MoxieControlImpl implements MoxieControl {
     }
 
     public void verifySoFar(Object... mockObjects) {
-        for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
-            getVerifiableFromProxy(mockProxy).verify();
-        }
+        InvocationLog.flushInstance();
+        verifyAll(mocksAndGroupsFor(mockObjects));
         for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
             getVerifiableFromProxy(mockProxy).verifyNoBackgroundErrors();
         }
     }
 
     public void verifyAndReset(Object... mockObjects) {
-        for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
-            Verifiable verifiable = getVerifiableFromProxy(mockProxy);
-            verifiable.verify();
-        }
+        InvocationLog.flushInstance();
+        verifyAll(mocksAndGroupsFor(mockObjects));
         for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
             Verifiable verifiable = getVerifiableFromProxy(mockProxy);
             verifiable.verifyNoBackgroundErrors();
@@ -292,7 +301,22 @@ class MoxieControlImpl implements MoxieControl {
         }
     }
 
+    private void verifyAll(Collection mockProxies) {
+        if (ParallelVerification.isEnabled(mockProxies.size())) {
+            List<Verifiable> verifiables = new ArrayList<Verifiable>(mockProxies.size());
+            for (Object mockProxy : mockProxies) {
+                verifiables.add(getVerifiableFromProxy(mockProxy));
+            }
+            ParallelVerification.verify(verifiables);
+        } else {
+            for (Object mockProxy : mockProxies) {
+                getVerifiableFromProxy(mockProxy).verify();
+            }
+        }
+    }
+
     public void reset(Object... mockObjects) {
+        InvocationLog.flushInstance();
         for (Object mockProxy : mocksAndGroupsFor(mockObjects)) {
             Verifiable verifiable = getVerifiableFromProxy(mockProxy);
             verifiable.reset(null);
@@ -312,7 +336,9 @@ class MoxieControlImpl implements MoxieControl {
         if (mockObjects != null && mockObjects.length > 0) {
             return Arrays.asList(mockObjects);
         } else {
-            return new ArrayList(mocksAndGroups.keySet());
+            synchronized (mocksAndGroups) {
+                return new ArrayList(mocksAndGroups.keySet());
+            }
         }
     }
 
@@ -322,9 +348,11 @@ class MoxieControlImpl implements MoxieControl {
             return Arrays.asList(mockObjects);
         } else {
             ArrayList result = new ArrayList();
-            for (Map.Entry<Object, Verifiable> entry : mocksAndGroups.entrySet()) {
-                if (entry.getValue() instanceof Interception) {
-                    result.add(entry.getKey());
+            synchronized (mocksAndGroups) {
+                for (Map.Entry<Object, Verifiable> entry : mocksAndGroups.entrySet()) {
+                    if (entry.getValue() instanceof Interception) {
+                        result.add(entry.getKey());
+                    }
                 }
             }
             return result;
@@ -332,6 +360,7 @@ class MoxieControlImpl implements MoxieControl {
     }
 
     public void verifyAndReset(Object mockObject, MoxieOptions firstOption, MoxieOptions... otherOptions) {
+        InvocationLog.flushInstance();
         Verifiable verifiable = getVerifiableFromProxy(mockObject);
         verifiable.verify();
         verifiable.verifyNoBackgroundErrors();
@@ -339,16 +368,21 @@ class MoxieControlImpl implements MoxieControl {
     }
 
     public void reset(Object mockObject, MoxieOptions firstOption, MoxieOptions... otherOptions) {
+        InvocationLog.flushInstance();
         Verifiable verifiable = getVerifiableFromProxy(mockObject);
         verifiable.reset(MoxieOptions.merge(firstOption, MoxieOptions.merge(otherOptions)));
     }
 
     public void checkNoActiveMocks() {
-        if (!mocksAndGroups.isEmpty()) {
+        List<Verifiable> unverified;
+        synchronized (mocksAndGroups) {
+            unverified = new ArrayList<Verifiable>(mocksAndGroups.values());
+        }
+        if (!unverified.isEmpty()) {
             StringWriter sw = new StringWriter();
             PrintWriter pw = new PrintWriter(sw);
             pw.append("The following mocks/sequences were not verified:\n");
-            for (Verifiable v : mocksAndGroups.values()) {
+            for (Verifiable v : unverified) {
                 @SuppressWarnings("ThrowableResultOfMethodCallIgnored")
                 Throwable whereInstantiated = v.getWhereInstantiated();
                 if (whereInstantiated != null) {
@@ -364,15 +398,23 @@ class MoxieControlImpl implements MoxieControl {
 
     @SuppressWarnings("unchecked")
     public Object[] autoMock(Object... testComponents) {
-        for (Object testInstance : testComponents) {
-            if (valuesOverwrittenByAutoMock.containsKey(testInstance)) {
-                throw new IllegalArgumentException("object has already been autoMock()'ed: " + testInstance);
+        List<Map<String, Object>> oldValuesList = new ArrayList<Map<String, Object>>(testComponents.length);
+        synchronized (valuesOverwrittenByAutoMock) {
+            for (Object testInstance : testComponents) {
+                if (valuesOverwrittenByAutoMock.containsKey(testInstance)) {
+                    throw new IllegalArgumentException("object has already been autoMock()'ed: " + testInstance);
+                }
+            }
+            for (Object testInstance : testComponents) {
+                Map<String, Object> oldValues = new HashMap<String, Object>();
+                valuesOverwrittenByAutoMock.put(testInstance, oldValues);
+                oldValuesList.add(oldValues);
             }
         }
         ArrayList result = new ArrayList();
-        for (Object testInstance : testComponents) {
-            Map<String, Object> oldValues = new HashMap<String, Object>();
-            valuesOverwrittenByAutoMock.put(testInstance, oldValues);
+        for (int i = 0; i < testComponents.length; i++) {
+            Object testInstance = testComponents[i];
+            Map<String, Object> oldValues = oldValuesList.get(i);
             for (Class c = testInstance.getClass(); c != null; c = c.getSuperclass()) {
                 for (Field f : c.getDeclaredFields()) {
                     Mock mockAnnotation = f.getAnnotation(Mock.class);
@@ -413,18 +455,26 @@ class MoxieControlImpl implements MoxieControl {
     public void autoUnMock(Object... testComponents) {
         Collection components;
         if (testComponents != null && testComponents.length > 0) {
-            for (Object testInstance : testComponents) {
-                if (!valuesOverwrittenByAutoMock.containsKey(testInstance)) {
-                    throw new IllegalArgumentException("object was not autoMock()'ed: " + testInstance);
+            synchronized (valuesOverwrittenByAutoMock) {
+                for (Object testInstance : testComponents) {
+                    if (!valuesOverwrittenByAutoMock.containsKey(testInstance)) {
+                        throw new IllegalArgumentException("object was not autoMock()'ed: " + testInstance);
+                    }
                 }
             }
             components = Arrays.asList(testComponents);
         } else {
-            components = new ArrayList(valuesOverwrittenByAutoMock.keySet());
+            synchronized (valuesOverwrittenByAutoMock) {
+                components = new ArrayList(valuesOverwrittenByAutoMock.keySet());
+            }
         }
 
         for (Object testInstance : components) {
             Map<String, Object> oldValues = valuesOverwrittenByAutoMock.remove(testInstance);
+            if (oldValues == null) {
+                // already unmocked by another thread sharing this control
+                continue;
+            }
             for (Class c = testInstance.getClass(); c != null; c = c.getSuperclass()) {
                 for (Field f : c.getDeclaredFields()) {
                     if (f.getAnnotation(Mock.class) != null || f.getAnnotation(Spy.class) != null || f.getAnnotation(AutoMock.class) != null || Group.class.equals(f.getType())) {
@@ -449,15 +499,22 @@ class MoxieControlImpl implements MoxieControl {
     @SuppressWarnings("unchecked")
     <T> List<T> getProxiesForClass(Class<T> clazz) {
         List<T> result = new ArrayList<T>();
-        for (Object o : mocksAndGroups.keySet()) {
-            if (clazz.isAssignableFrom(o.getClass())) {
-                result.add((T) o);
+        synchronized (mocksAndGroups) {
+            for (Object o : mocksAndGroups.keySet()) {
+                if (clazz.isAssignableFrom(o.getClass())) {
+                    result.add((T) o);
+                }
             }
         }
         return result;
     }
 
+    /**
+     * Returns a snapshot of the registered proxies; later registrations and verifications are not reflected in it.
+     */
     Set<Object> getAllProxies() {
-        return mocksAndGroups.keySet();
+        synchronized (mocksAndGroups) {
+            return Collections.unmodifiableSet(new IdentityHashMap<Object, Verifiable>(mocksAndGroups).keySet());
+        }
     }
 }
@@ -35,6 +35,18 @@ public class MoxieFailedVerificationError extends Error {
         super(createExceptionMessage(message, mockOrGroupName, invocations, unorderedExpectations, orderedExpectations));
     }
 
+    MoxieFailedVerificationError(List<MoxieFailedVerificationError> failures) {
+        super(createExceptionMessage(failures), failures.get(0));
+    }
+
+    private static String createExceptionMessage(List<MoxieFailedVerificationError> failures) {
+        StringBuilder result = new StringBuilder(failures.size() + " mocks/groups failed verification:\n");
+        for (MoxieFailedVerificationError failure : failures) {
+            result.append('\n').append(failure.getMessage());
+        }
+        return result.toString();
+    }
+
     private static String createExceptionMessage(String message, String mockOrGroupName, List<Invocation> invocations, Collection<ExpectationImpl> unorderedExpectations, Collection<ExpectationImpl> orderedExpectations) {
         SimpleDescription desc = new SimpleDescription();
         desc.appendText("On \"" + mockOrGroupName + "\": " + message + "\n");
@@ -32,4 +32,10 @@ interface MoxieFlags {
     Boolean isTracing();
 
     Boolean isBackgroundAware();
+
+    Boolean isConcurrent();
+
+    Boolean isSampledTracing();
+
+    Integer getHistoryLimit();
 }
@@ -24,13 +24,20 @@ package moxie;
 
 import moxie.hamcrest.IsArray;
 import moxie.hamcrest.IsArrayContaining;
+import moxie.hamcrest.IsArrayEqual;
 import moxie.hamcrest.IsArrayWithSize;
 import moxie.hamcrest.IsCloseTo;
 import moxie.hamcrest.IsCollectionWithSize;
+import moxie.hamcrest.IsEqualIgnoringCase;
+import moxie.hamcrest.IsEqualIgnoringWhiteSpace;
 import moxie.hamcrest.IsInstanceOfArray;
 import moxie.hamcrest.IsMapWithSize;
+import moxie.hamcrest.IsNullOrInstanceOf;
 import moxie.hamcrest.LambdaMatcher;
 import moxie.hamcrest.MatchesRegexp;
+import moxie.hamcrest.StringContains;
+import moxie.hamcrest.StringEndsWith;
+import moxie.hamcrest.StringStartsWith;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -41,16 +48,12 @@ import org.hamcrest.core.AllOf;
 import org.hamcrest.core.AnyOf;
 import org.hamcrest.core.IsEqual;
 import org.hamcrest.core.IsInstanceOf;
-import org.hamcrest.core.IsNot;
 import org.hamcrest.core.IsNull;
 import org.hamcrest.core.IsSame;
-import org.hamcrest.number.OrderingComparison;
-import org.hamcrest.text.IsEqualIgnoringCase;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -108,7 +111,12 @@ import java.util.regex.Pattern;
  */
 public abstract class MoxieMatchers {
 
-    private static ThreadLocal<LinkedList<MatcherReport>> matchers = new ThreadLocal<LinkedList<MatcherReport>>();
+    private static final ThreadLocal<MatcherStack> matchers = new ThreadLocal<MatcherStack>() {
+        @Override
+        protected MatcherStack initialValue() {
+            return new MatcherStack();
+        }
+    };
 
     MoxieMatchers() {
     }
@@ -232,7 +240,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T> T any(Class<T> clazz) {
-        return (T) argThat(clazz, AnyOf.anyOf(new IsNull(), new IsInstanceOf(MoxieUtils.toNonPrimitive(clazz))));
+        return (T) argThat(clazz, IsNullOrInstanceOf.nullOrInstanceOf(MoxieUtils.toNonPrimitive(clazz)));
     }
 
     /**
@@ -261,7 +269,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T> T argThat(Class<T> clazz, Matcher<? super T> matcher) {
-        getMatcherReports().add(new MatcherReport(matcher, clazz));
+        getMatcherStack().push(matcher, clazz);
         return MoxieUtils.defaultValue(clazz);
     }
 
@@ -527,7 +535,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public boolean eq(boolean value) {
-        return argThat(Boolean.TYPE, IsEqual.equalTo(value));
+        return argThat(Boolean.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -537,7 +545,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public byte eq(byte value) {
-        return argThat(Byte.TYPE, IsEqual.equalTo(value));
+        return argThat(Byte.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -547,7 +555,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public char eq(char value) {
-        return argThat(Character.TYPE, IsEqual.equalTo(value));
+        return argThat(Character.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -557,7 +565,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public double eq(double value) {
-        return argThat(Double.TYPE, IsEqual.equalTo(value));
+        return argThat(Double.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -567,7 +575,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public float eq(float value) {
-        return argThat(Float.TYPE, IsEqual.equalTo(value));
+        return argThat(Float.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -577,7 +585,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public int eq(int value) {
-        return argThat(Integer.TYPE, IsEqual.equalTo(value));
+        return argThat(Integer.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -587,7 +595,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public long eq(long value) {
-        return argThat(Long.TYPE, IsEqual.equalTo(value));
+        return argThat(Long.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -597,7 +605,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public short eq(short value) {
-        return argThat(Short.TYPE, IsEqual.equalTo(value));
+        return argThat(Short.TYPE, CompiledMatcher.equalTo(value));
     }
 
     /**
@@ -707,29 +715,38 @@ public abstract class MoxieMatchers {
 
     /**
      * Matches a {@link String} parameter containing the given substring.
+     * <p>
+     * Any other {@link CharSequence} (such as a {@link StringBuilder}) passed for an <code>Object</code> or
+     * <code>CharSequence</code> parameter is matched by its contents as well.
      *
      * @return <code>null</code>
      */
     static public String hasSubstring(String substring) {
-        return argThat(String.class, Matchers.containsString(substring));
+        return argThat(String.class, StringContains.containsString(substring));
     }
 
     /**
      * Matches a {@link String} parameter ending with the given suffix.
+     * <p>
+     * Any other {@link CharSequence} (such as a {@link StringBuilder}) passed for an <code>Object</code> or
+     * <code>CharSequence</code> parameter is matched by its contents as well.
      *
      * @return <code>null</code>
      */
     static public String endsWith(String suffix) {
-        return argThat(String.class, Matchers.endsWith(suffix));
+        return argThat(String.class, StringEndsWith.endsWith(suffix));
     }
 
     /**
      * Matches a {@link String} parameter starting with the given prefix.
+     * <p>
+     * Any other {@link CharSequence} (such as a {@link StringBuilder}) passed for an <code>Object</code> or
+     * <code>CharSequence</code> parameter is matched by its contents as well.
      *
      * @return <code>null</code>
      */
     static public String startsWith(String prefix) {
-        return argThat(String.class, Matchers.startsWith(prefix));
+        return argThat(String.class, StringStartsWith.startsWith(prefix));
     }
 
     /**
@@ -1006,24 +1023,27 @@ public abstract class MoxieMatchers {
 
     @SuppressWarnings("unchecked")
     private static <T> T reportAnd(Object matchValuesArray, Class<T> clazz) {
-        List<Matcher> matchers = MatcherSyntax.matcherListFragment(clazz, matchValuesArray);
-        return (T) argThat(clazz, new AllOf(matchers));
+        List<Matcher> matchers = MatcherSyntax.operandListFragment(clazz, matchValuesArray);
+        return (T) argThat(clazz, CompiledMatcher.allOf(matchers));
     }
 
     @SuppressWarnings("unchecked")
     private static <T> T reportOr(Object matchValuesArray, Class<T> clazz) {
-        List<Matcher> matchers = MatcherSyntax.matcherListFragment(clazz, matchValuesArray);
-        return (T) argThat(clazz, new AnyOf(matchers));
+        List<Matcher> matchers = MatcherSyntax.operandListFragment(clazz, matchValuesArray);
+        return (T) argThat(clazz, CompiledMatcher.anyOf(matchers));
     }
 
     @SuppressWarnings("unchecked")
     private static <T> T reportNot(T matchValue, Class<T> clazz) {
-        Matcher matcher = MatcherSyntax.singleMatcherFragment(clazz, matchValue);
-        return (T) argThat(clazz, IsNot.not(matcher));
+        Matcher matcher = MatcherSyntax.operandFragment(clazz, matchValue);
+        return (T) argThat(clazz, CompiledMatcher.not(matcher));
     }
 
     /**
      * Matches a {@link String} parameter equal to the given value ignoring case.
+     * <p>
+     * Any other {@link CharSequence} (such as a {@link StringBuilder}) passed for an <code>Object</code> or
+     * <code>CharSequence</code> parameter is matched by its contents as well.
      *
      * @return <code>null</code>
      */
@@ -1108,7 +1128,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public byte geq(byte value) {
-        return argThat(Byte.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Byte.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1117,7 +1137,7 @@ public abstract class MoxieMatchers {
      * @return <code>'\0'</code>
      */
     static public char geq(char value) {
-        return argThat(Character.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Character.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1127,7 +1147,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T extends Comparable<T>> T geq(T value) {
-        return (T) argThat(Comparable.class, (Matcher) OrderingComparison.greaterThanOrEqualTo(value));
+        return (T) argThat(Comparable.class, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1136,7 +1156,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public double geq(double value) {
-        return argThat(Double.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Double.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1145,7 +1165,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public float geq(float value) {
-        return argThat(Float.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Float.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1154,7 +1174,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public int geq(int value) {
-        return argThat(Integer.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Integer.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1163,7 +1183,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public long geq(long value) {
-        return argThat(Long.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Long.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1172,7 +1192,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public short geq(short value) {
-        return argThat(Short.TYPE, OrderingComparison.greaterThanOrEqualTo(value));
+        return argThat(Short.TYPE, CompiledMatcher.greaterThanOrEqualTo(value));
     }
 
     /**
@@ -1181,7 +1201,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public byte gt(byte value) {
-        return argThat(Byte.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Byte.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1190,7 +1210,7 @@ public abstract class MoxieMatchers {
      * @return <code>'\0'</code>
      */
     static public char gt(char value) {
-        return argThat(Character.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Character.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1200,7 +1220,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T extends Comparable<T>> T gt(T value) {
-        return (T) argThat(Comparable.class, (Matcher) OrderingComparison.greaterThan(value));
+        return (T) argThat(Comparable.class, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1209,7 +1229,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public double gt(double value) {
-        return argThat(Double.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Double.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1218,7 +1238,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public float gt(float value) {
-        return argThat(Float.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Float.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1227,7 +1247,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public int gt(int value) {
-        return argThat(Integer.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Integer.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1236,7 +1256,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public long gt(long value) {
-        return argThat(Long.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Long.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1245,7 +1265,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public short gt(short value) {
-        return argThat(Short.TYPE, OrderingComparison.greaterThan(value));
+        return argThat(Short.TYPE, CompiledMatcher.greaterThan(value));
     }
 
     /**
@@ -1254,7 +1274,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public byte leq(byte value) {
-        return argThat(Byte.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Byte.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1263,7 +1283,7 @@ public abstract class MoxieMatchers {
      * @return <code>'\0'</code>
      */
     static public char leq(char value) {
-        return argThat(Character.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Character.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1273,7 +1293,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T extends Comparable<T>> T leq(T value) {
-        return (T) argThat(Comparable.class, (Matcher) OrderingComparison.lessThanOrEqualTo(value));
+        return (T) argThat(Comparable.class, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1282,7 +1302,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public double leq(double value) {
-        return argThat(Double.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Double.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1291,7 +1311,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public float leq(float value) {
-        return argThat(Float.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Float.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1300,7 +1320,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public int leq(int value) {
-        return argThat(Integer.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Integer.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1309,7 +1329,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public long leq(long value) {
-        return argThat(Long.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Long.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1318,7 +1338,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public short leq(short value) {
-        return argThat(Short.TYPE, OrderingComparison.lessThanOrEqualTo(value));
+        return argThat(Short.TYPE, CompiledMatcher.lessThanOrEqualTo(value));
     }
 
     /**
@@ -1327,7 +1347,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public byte lt(byte value) {
-        return argThat(Byte.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Byte.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1336,7 +1356,7 @@ public abstract class MoxieMatchers {
      * @return <code>'\0'</code>
      */
     static public char lt(char value) {
-        return argThat(Character.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Character.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1346,7 +1366,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T extends Comparable<T>> T lt(T value) {
-        return (T) argThat(Comparable.class, (Matcher) OrderingComparison.lessThan(value));
+        return (T) argThat(Comparable.class, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1355,7 +1375,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public double lt(double value) {
-        return argThat(Double.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Double.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1364,7 +1384,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public float lt(float value) {
-        return argThat(Float.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Float.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1373,7 +1393,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public int lt(int value) {
-        return argThat(Integer.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Integer.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1382,7 +1402,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public long lt(long value) {
-        return argThat(Long.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Long.TYPE, CompiledMatcher.lessThan(value));
     }
 
     /**
@@ -1391,7 +1411,7 @@ public abstract class MoxieMatchers {
      * @return <code>0</code>
      */
     static public short lt(short value) {
-        return argThat(Short.TYPE, OrderingComparison.lessThan(value));
+        return argThat(Short.TYPE, CompiledMatcher.lessThan(value));
     }
 
 
@@ -1542,7 +1562,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public boolean[] aryEq(boolean... value) {
-        return argThat(boolean[].class, IsArray.booleanArrayEqualTo(value));
+        return argThat(boolean[].class, IsArrayEqual.booleanArrayEqualTo(value));
     }
 
     /**
@@ -1556,7 +1576,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public byte[] aryEq(byte... value) {
-        return argThat(byte[].class, IsArray.byteArrayEqualTo(value));
+        return argThat(byte[].class, IsArrayEqual.byteArrayEqualTo(value));
     }
 
     /**
@@ -1570,7 +1590,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public char[] aryEq(char... value) {
-        return argThat(char[].class, IsArray.charArrayEqualTo(value));
+        return argThat(char[].class, IsArrayEqual.charArrayEqualTo(value));
     }
 
     /**
@@ -1584,7 +1604,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public double[] aryEq(double... value) {
-        return argThat(double[].class, IsArray.doubleArrayEqualTo(value));
+        return argThat(double[].class, IsArrayEqual.doubleArrayEqualTo(value));
     }
 
     /**
@@ -1598,7 +1618,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public float[] aryEq(float... value) {
-        return argThat(float[].class, IsArray.floatArrayEqualTo(value));
+        return argThat(float[].class, IsArrayEqual.floatArrayEqualTo(value));
     }
 
     /**
@@ -1612,7 +1632,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public int[] aryEq(int... value) {
-        return argThat(int[].class, IsArray.intArrayEqualTo(value));
+        return argThat(int[].class, IsArrayEqual.intArrayEqualTo(value));
     }
 
     /**
@@ -1626,7 +1646,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public long[] aryEq(long... value) {
-        return argThat(long[].class, IsArray.longArrayEqualTo(value));
+        return argThat(long[].class, IsArrayEqual.longArrayEqualTo(value));
     }
 
     /**
@@ -1640,7 +1660,7 @@ public abstract class MoxieMatchers {
      * @return <code>null</code>
      */
     static public short[] aryEq(short... value) {
-        return argThat(short[].class, IsArray.shortArrayEqualTo(value));
+        return argThat(short[].class, IsArrayEqual.shortArrayEqualTo(value));
     }
 
     /**
@@ -1655,7 +1675,7 @@ public abstract class MoxieMatchers {
      */
     @SuppressWarnings("unchecked")
     static public <T> T[] aryEq(T... value) {
-        return (T[]) argThat(Object[].class, IsArray.<Object>arrayEqualTo(value));
+        return (T[]) argThat(Object[].class, IsArrayEqual.<Object>arrayEqualTo(value));
     }
 
     /**
@@ -2179,11 +2199,14 @@ public abstract class MoxieMatchers {
 
     /**
      * Matches the given string, ignoring any white space.
+     * <p>
+     * Any other {@link CharSequence} (such as a {@link StringBuilder}) passed for an <code>Object</code> or
+     * <code>CharSequence</code> parameter is matched by its contents as well.
      *
      * @return <code>null</code>
      */
     static public String eqIgnoreWhiteSpace(String value) {
-        return argThat(String.class, Matchers.equalToIgnoringWhiteSpace(value));
+        return argThat(String.class, IsEqualIgnoringWhiteSpace.equalToIgnoringWhiteSpace(value));
     }
 
     /**
@@ -2542,6 +2565,29 @@ public abstract class MoxieMatchers {
         return captureTo(Double.TYPE, destination);
     }
 
+    /**
+     * Special matcher used to capture method parameters for later inspection in your tests.
+     * When this matcher is run, the matcher will add the value encountered to the given capture, then exit successfully.
+     * Unlike {@link #captureDoubleTo(java.util.Collection)}, no wrapper object is kept for each value captured.
+     *
+     * @return <code>0</code>
+     */
+    static public double captureDoubleTo(final DoubleCapture destination) {
+        return argThat(Double.TYPE, new BaseMatcher<Double>() {
+            public boolean matches(Object o) {
+                if (!(o instanceof Double)) {
+                    return false;
+                }
+                destination.add((Double) o);
+                return true;
+            }
+
+            public void describeTo(Description description) {
+                description.appendText("capture this argument");
+            }
+        });
+    }
+
     /**
      * Special matcher used to capture method parameters for later inspection in your tests.
      * When this matcher is run, the matcher will add the value encountered to the given collection, then exit successfully.
@@ -2562,6 +2608,29 @@ public abstract class MoxieMatchers {
         return captureTo(Integer.TYPE, destination);
     }
 
+    /**
+     * Special matcher used to capture method parameters for later inspection in your tests.
+     * When this matcher is run, the matcher will add the value encountered to the given capture, then exit successfully.
+     * Unlike {@link #captureIntTo(java.util.Collection)}, no wrapper object is kept for each value captured.
+     *
+     * @return <code>0</code>
+     */
+    static public int captureIntTo(final IntCapture destination) {
+        return argThat(Integer.TYPE, new BaseMatcher<Integer>() {
+            public boolean matches(Object o) {
+                if (!(o instanceof Integer)) {
+                    return false;
+                }
+                destination.add((Integer) o);
+                return true;
+            }
+
+            public void describeTo(Description description) {
+                description.appendText("capture this argument");
+            }
+        });
+    }
+
     /**
      * Special matcher used to capture method parameters for later inspection in your tests.
      * When this matcher is run, the matcher will add the value encountered to the given collection, then exit successfully.
@@ -2572,6 +2641,29 @@ public abstract class MoxieMatchers {
         return captureTo(Long.TYPE, destination);
     }
 
+    /**
+     * Special matcher used to capture method parameters for later inspection in your tests.
+     * When this matcher is run, the matcher will add the value encountered to the given capture, then exit successfully.
+     * Unlike {@link #captureLongTo(java.util.Collection)}, no wrapper object is kept for each value captured.
+     *
+     * @return <code>0</code>
+     */
+    static public long captureLongTo(final LongCapture destination) {
+        return argThat(Long.TYPE, new BaseMatcher<Long>() {
+            public boolean matches(Object o) {
+                if (!(o instanceof Long)) {
+                    return false;
+                }
+                destination.add((Long) o);
+                return true;
+            }
+
+            public void describeTo(Description description) {
+                description.appendText("capture this argument");
+            }
+        });
+    }
+
     /**
      * Special matcher used to capture method parameters for later inspection in your tests.
      * When this matcher is run, the matcher will add the value encountered to the given collection, then exit successfully.
@@ -2617,13 +2709,8 @@ public abstract class MoxieMatchers {
         return argThat(expectedType, (Matcher<T>) matcher);
     }
 
-    static LinkedList<MatcherReport> getMatcherReports() {
-        LinkedList<MatcherReport> matcherList = matchers.get();
-        if (matcherList == null) {
-            matcherList = new LinkedList<MatcherReport>();
-            matchers.set(matcherList);
-        }
-        return matcherList;
+    static MatcherStack getMatcherStack() {
+        return matchers.get();
     }
 
 
@@ -22,6 +22,12 @@
 
 package moxie;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Options that can be specified in the creation of {@link Moxie#mock(Class) mocks}, {@link MoxieControl#spy(Object,MoxieOptions...) spies} or {@link MoxieControl#group(MoxieOptions...) groups}.
  */
@@ -30,12 +36,12 @@ public enum MoxieOptions implements MoxieFlags {
     /**
      * The order in which expectations are fulfilled on this mock/group will be strictly checked; out-of-order calls will fail.
      */
-    UNORDERED(false, null, null, null, null),
+    UNORDERED(false, null, null, null, null, null, null, null),
 
     /**
      * The order in which expectations are fulfilled on this mock/group will not be checked.
      */
-    ORDERED(true, null, null, null, null),
+    ORDERED(true, null, null, null, null, null, null, null),
 
     /**
      *
@@ -59,7 +65,7 @@ public enum MoxieOptions implements MoxieFlags {
      * On spies, the default behavior is always to delegate to the underlying object.
      * <p>
      */
-    PERMISSIVE(null, true, null, null, null),
+    PERMISSIVE(null, true, null, null, null, null, null, null),
 
     /**
      *
@@ -71,7 +77,7 @@ public enum MoxieOptions implements MoxieFlags {
      * unless a {@link Expectation#never() never()} expectation is explicitly set for those methods.  
      * <p>
      */
-    PRESCRIPTIVE(null, false, null, null, null),
+    PRESCRIPTIVE(null, false, null, null, null, null, null, null),
 
     /**
      *
@@ -87,19 +93,26 @@ public enum MoxieOptions implements MoxieFlags {
      * lest unexpected method calls raise an error.
      * <p>
      */
-    PARTIAL(null ,null, true, null, null),
+    PARTIAL(null ,null, true, null, null, null, null, null),
 
     /**
      * Save stack traces when instantiating new mocks or recording method invocations.
      * Makes Moxie slightly slower (~2x), but sometimes produces more informative error messages.
      */
-    TRACE(null, null, null, true, null),
+    TRACE(null, null, null, true, null, null, false, null),
+
+    /**
+     * Like {@link #TRACE}, but only save a stack trace for every sixteenth method invocation on each mock/spy.
+     * Stack traces are still saved when instantiating new mocks, spies or groups.
+     * Much cheaper than {@link #TRACE} in tests that call their mocks many times.
+     */
+    SAMPLED_TRACE(null, null, null, true, null, null, true, null),
 
     /**
      * Observe the default behavior - for performance reasons, don't save stack traces.
      * Opposite of {@link #TRACE}.
      */
-    NO_TRACE(null, null, null, false, null),
+    NO_TRACE(null, null, null, false, null, null, null, null),
 
     /**
      * Don't cause tests to fail on {@link Moxie#verify(Object...) verify()} if there has been
@@ -109,32 +122,95 @@ public enum MoxieOptions implements MoxieFlags {
      *
      * @deprecated  This flag is a tested and supported feature of Moxie, but you really should fix your code/tests instead of using it!  Consider using {@link #PERMISSIVE} instead.
      */
-    IGNORE_BACKGROUND_FAILURES(null, null, null, null, false),
+    IGNORE_BACKGROUND_FAILURES(null, null, null, null, false, null, null, null),
 
     /**
      * Observe the default behavior - fail tests when mock errors are thrown in background threads.
      * Opposite of {@link #IGNORE_BACKGROUND_FAILURES}.
      */
-    NO_IGNORE_BACKGROUND_FAILURES(null, null, null, null, true),
+    NO_IGNORE_BACKGROUND_FAILURES(null, null, null, null, true, null, null, null),
+
+    /**
+     *
+     * Record invocations on this mock/spy in a lock-free log, so that it can safely be called from many threads at once
+     * (and verified/checked while other threads are still calling it).
+     * <p>
+     *
+     * Without this option, invocations are recorded in a plain list - slightly faster for single-threaded tests,
+     * but calls from several threads at once can corrupt the mock's history or fail verification with a
+     * {@link java.util.ConcurrentModificationException}.
+     * <p>
+     *
+     * Note that expectations should still be set up from a single thread, before the mock is shared.
+     * <p>
+     */
+    CONCURRENT(null, null, null, null, null, true, null, null),
+
+    /**
+     * Observe the default behavior - record invocations in a plain list, which is not safe for concurrent use.
+     * Opposite of {@link #CONCURRENT}.
+     */
+    NO_CONCURRENT(null, null, null, null, null, false, null, null),
+
+    /**
+     * Observe the default behavior - keep a record of every invocation on this mock/spy, for use by
+     * {@link Moxie#check(Object) check()} and in error messages.
+     */
+    FULL_HISTORY(null, null, null, null, null, null, null, Integer.MAX_VALUE),
+
+    /**
+     *
+     * Only keep a record of the most recent invocations on this mock/spy (by default the last 1000, or as many as given
+     * by the <code>moxie.recentHistorySize</code> system property), so that its memory use stays constant however
+     * many times it's called.
+     * <p>
+     *
+     * Expectations are verified as usual, but {@link Moxie#check(Object) check()} and
+     * {@link Moxie#checkNothingElseHappened(Object...) checkNothingElseHappened()} will only see the invocations that
+     * were kept.
+     * <p>
+     */
+    RECENT_HISTORY(null, null, null, null, null, null, null, RecentHistoryList.DEFAULT_CAPACITY),
+
+    /**
+     *
+     * Don't keep any record of invocations on this mock/spy - only count the calls matching each expectation,
+     * so that its memory use stays constant however many times it's called.
+     * <p>
+     *
+     * Expectations are verified as usual, but the mock/spy can't be used with {@link Moxie#check(Object) check()};
+     * {@link Moxie#checkNothingElseHappened(Object...) checkNothingElseHappened()} and
+     * {@link Moxie#checkNothingElseUnexpectedHappened(Object...) checkNothingElseUnexpectedHappened()} treat it
+     * as never having been called.
+     * Suitable for stubs driven through long-running or soak tests.
+     * <p>
+     */
+    NO_HISTORY(null, null, null, null, null, null, null, 0),
 
     /**
      * Represents Moxie's default settings for mocks/spies ({@link #UNORDERED} and {@link #PRESCRIPTIVE}).
      */
-    MOCK_DEFAULTS(false, false, null, false, null),
+    MOCK_DEFAULTS(false, false, null, false, null, false, false, Integer.MAX_VALUE),
 
     /**                                                               1
      * Represents Moxie's default settings for {@link Group}s ({@link #ORDERED}).
      */
-    GROUP_DEFAULTS(true, null, null, false, null);
+    GROUP_DEFAULTS(true, null, null, false, null, null, false, null);
 
-    final private Boolean strictlyOrdered, autoStubbing, partial, tracing, backgroundAware;
+    static private final Map<List<MoxieFlags>, MoxieFlags> MERGED_OPTIONS = new ConcurrentHashMap<List<MoxieFlags>, MoxieFlags>();
 
-    MoxieOptions(Boolean strictlyOrdered, Boolean autoStubbing, Boolean partial, Boolean tracing, Boolean backgroundAware) {
+    final private Boolean strictlyOrdered, autoStubbing, partial, tracing, backgroundAware, concurrent, sampledTracing;
+    final private Integer historyLimit;
+
+    MoxieOptions(Boolean strictlyOrdered, Boolean autoStubbing, Boolean partial, Boolean tracing, Boolean backgroundAware, Boolean concurrent, Boolean sampledTracing, Integer historyLimit) {
         this.strictlyOrdered = strictlyOrdered;
         this.autoStubbing = autoStubbing;
         this.partial = partial;
         this.tracing = tracing;
         this.backgroundAware = backgroundAware;
+        this.concurrent = concurrent;
+        this.sampledTracing = sampledTracing;
+        this.historyLimit = historyLimit;
     }
 
     /**
@@ -172,8 +248,30 @@ public enum MoxieOptions implements MoxieFlags {
         return backgroundAware;
     }
 
+    /**
+     * @deprecated Moxie internal method.
+     */
+    public Boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * @deprecated Moxie internal method.
+     */
+    public Boolean isSampledTracing() {
+        return sampledTracing;
+    }
+
+    /**
+     * @deprecated Moxie internal method.
+     */
+    public Integer getHistoryLimit() {
+        return historyLimit;
+    }
+
     static MoxieFlags merge(MoxieFlags... options) {
-        Boolean strictlyOrdered = null, autoStubbing = null, partial = null, tracing = null, backgroundAware = null;
+        Boolean strictlyOrdered = null, autoStubbing = null, partial = null, tracing = null, backgroundAware = null, concurrent = null, sampledTracing = null;
+        Integer historyLimit = null;
         if (options != null) {
             for (MoxieFlags flags : options) {
                 if (flags.isStrictlyOrdered() != null) {
@@ -211,18 +309,61 @@ public enum MoxieOptions implements MoxieFlags {
                         throw new IllegalArgumentException("Specified options are contradictory regarding background awareness");
                     }
                 }
+                if (flags.isConcurrent() != null) {
+                    if (concurrent == null) {
+                        concurrent = flags.isConcurrent();
+                    } else if (!concurrent.equals(flags.isConcurrent())) {
+                        throw new IllegalArgumentException("Specified options are contradictory regarding concurrent use");
+                    }
+                }
+                if (flags.isSampledTracing() != null) {
+                    if (sampledTracing == null) {
+                        sampledTracing = flags.isSampledTracing();
+                    } else if (!sampledTracing.equals(flags.isSampledTracing())) {
+                        throw new IllegalArgumentException("Specified options are contradictory regarding sampling of traces");
+                    }
+                }
+                if (flags.getHistoryLimit() != null) {
+                    if (historyLimit == null) {
+                        historyLimit = flags.getHistoryLimit();
+                    } else if (!historyLimit.equals(flags.getHistoryLimit())) {
+                        throw new IllegalArgumentException("Specified options are contradictory regarding invocation history");
+                    }
+                }
             }
         }
-        return new SimpleMoxieFlags(strictlyOrdered, autoStubbing, partial, tracing, backgroundAware);
+        return new SimpleMoxieFlags(strictlyOrdered, autoStubbing, partial, tracing, backgroundAware, concurrent, sampledTracing, historyLimit);
     }
 
     static MoxieFlags mergeWithDefaults(MoxieFlags defaults, MoxieFlags... options) {
+        // Combinations of MoxieOptions are merged once and remembered, since a test suite only ever uses a handful
+        // of them but may create a great many mocks.
+        if (!(defaults instanceof MoxieOptions) || (options != null && !(options instanceof MoxieOptions[]))) {
+            return doMergeWithDefaults(defaults, options);
+        }
+        List<MoxieFlags> key = new ArrayList<MoxieFlags>(options != null ? options.length + 1 : 1);
+        key.add(defaults);
+        if (options != null) {
+            key.addAll(Arrays.asList(options));
+        }
+        MoxieFlags result = MERGED_OPTIONS.get(key);
+        if (result == null) {
+            result = doMergeWithDefaults(defaults, options);
+            MERGED_OPTIONS.put(key, result);
+        }
+        return result;
+    }
+
+    static private MoxieFlags doMergeWithDefaults(MoxieFlags defaults, MoxieFlags... options) {
         MoxieFlags merged = merge(options);
         return new SimpleMoxieFlags(
                 merged.isStrictlyOrdered() != null ? merged.isStrictlyOrdered() : defaults.isStrictlyOrdered(),
                 merged.isAutoStubbing() != null ? merged.isAutoStubbing() : defaults.isAutoStubbing(),
                 merged.isPartial() != null ? merged.isPartial() : defaults.isPartial(), 
                 merged.isTracing() != null ? merged.isTracing() : defaults.isTracing(),
-                merged.isBackgroundAware() != null ? merged.isBackgroundAware() : defaults.isBackgroundAware());
+                merged.isBackgroundAware() != null ? merged.isBackgroundAware() : defaults.isBackgroundAware(),
+                merged.isConcurrent() != null ? merged.isConcurrent() : defaults.isConcurrent(),
+                merged.isSampledTracing() != null ? merged.isSampledTracing() : defaults.isSampledTracing(),
+                merged.getHistoryLimit() != null ? merged.getHistoryLimit() : defaults.getHistoryLimit());
     }
 }
@@ -75,7 +75,7 @@ public class MoxieRule implements MethodRule {
             @Override
             public void evaluate() throws Throwable {
                 control.deactivate();
-                MoxieMatchers.getMatcherReports().clear();
+                MoxieMatchers.getMatcherStack().clear();
                 control.autoMock(testInstance);
                 try {
                     statement.evaluate();
@@ -83,7 +83,7 @@ public class MoxieRule implements MethodRule {
                 } finally {
                     control.autoUnMock(testInstance);
                     control.deactivate();
-                    MoxieMatchers.getMatcherReports().clear();
+                    MoxieMatchers.getMatcherStack().clear();
                 }
             }
         };
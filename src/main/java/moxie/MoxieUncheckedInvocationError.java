@@ -24,10 +24,14 @@ package moxie;
 
 import moxie.hamcrest.SimpleDescription;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 
 /**
  *  {@link Error} thrown by Moxie when {@link Moxie#checkNothingElseHappened(Object...) checkNothingElseHappened()} finds one or more unchecked invocations.
+ *  For mocks and spies with {@link MoxieOptions#TRACE TRACE} or {@link MoxieOptions#SAMPLED_TRACE SAMPLED_TRACE}
+ *  turned on, the message also shows where each traced invocation was made.
  */
 public class MoxieUncheckedInvocationError extends Error {
     MoxieUncheckedInvocationError(String message, ArrayList<Invocation> uncheckedInvocations) {
@@ -38,6 +42,17 @@ public class MoxieUncheckedInvocationError extends Error {
         SimpleDescription desc = new SimpleDescription();
         desc.appendText(message + "\n");
         MoxieUtils.describeIfNonEmpty(desc, "Invoked:\n", uncheckedInvocations);
-        return desc.toString();
+
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        pw.append(desc.toString());
+        for (Invocation invocation : uncheckedInvocations) {
+            InstantiationStackTrace trace = invocation.getInstantiationStackTrace();
+            if (trace != null) {
+                trace.printStackTrace(pw);
+            }
+        }
+        pw.flush();
+        return sw.toString();
     }
 }
\ No newline at end of file
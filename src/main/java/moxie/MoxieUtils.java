@@ -130,15 +130,10 @@ abstract class MoxieUtils {
     }
 
     @SuppressWarnings("unchecked")
-    static <T> T createThreadLocalProxy(final Class<T> clazz, final Factory<T> factory) {
-        final ThreadLocal<T> threadLocal = new ThreadLocal<T>();
+    static <T> T createThreadLocalProxy(final Class<T> clazz, final ThreadLocal<T> threadLocal, final Factory<T> factory) {
         return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, new InvocationHandler() {
             public Object invoke(Object proxyUnused, Method method, Object[] params) throws Throwable {
-                T delegate = threadLocal.get();
-                if (delegate == null) {
-                    delegate = factory.create();
-                    threadLocal.set(delegate);
-                }
+                T delegate = getOrCreate(threadLocal, factory);
                 try {
                     return method.invoke(delegate, params);
                 } catch (InvocationTargetException e) {
@@ -148,6 +143,41 @@ abstract class MoxieUtils {
         });
     }
 
+    static <T> T getOrCreate(ThreadLocal<T> threadLocal, Factory<T> factory) {
+        T result = threadLocal.get();
+        if (result == null) {
+            result = factory.create();
+            threadLocal.set(result);
+        }
+        return result;
+    }
+
+    /**
+     * Reflectively invokes a method, rethrowing whatever it throws as-is.  If the method can't be called at all,
+     * a {@link MoxieUnexpectedError} is thrown instead, so that it can't be mistaken for an
+     * {@link IllegalAccessException} thrown by the method itself.
+     * <p>
+     * Proxies hand us the same {@link Method} instance on every call, so the method is only made accessible the
+     * first time through - after that (and after the JDK has swapped in a generated accessor, a few calls later)
+     * a call costs little more than a direct one.
+     */
+    static Object invokeMethod(Method method, Object target, Object[] args) throws Throwable {
+        if (!method.isAccessible()) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // not allowed (security manager, or module rules on a newer JDK) - try calling it anyway
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new MoxieUnexpectedError("error calling " + method, e);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
     static StackTraceElement getExternalCaller() {
         for (StackTraceElement element : new Exception().getStackTrace()) {
             if (!element.getClassName().startsWith("$") &&
@@ -223,7 +253,7 @@ abstract class MoxieUtils {
         for (Class clazz = interceptedClass; clazz != null; clazz = clazz.getSuperclass()) {
             for (Method m : clazz.getDeclaredMethods()) {
                 if (m.getName().equals(methodName) && Modifier.isStatic(m.getModifiers()) == isStatic) {
-                    candidates.add(new MethodAdapter(m));
+                    candidates.add(MethodAdapter.forMethod(m));
                 }
             }
         }
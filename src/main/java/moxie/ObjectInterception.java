@@ -62,7 +62,7 @@ abstract class ObjectInterception<T> extends Interception {
     }
 
     ObjectCheckImpl<T> check() {
-        return new ObjectCheckImpl<T>(this, invocations);
+        return new ObjectCheckImpl<T>(this, getInvocations());
     }
 
 }
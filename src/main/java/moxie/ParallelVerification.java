@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in parallel verification of large numbers of mocks, enabled by setting the
+ * <code>moxie.parallelVerification</code> system property to <code>true</code>.
+ * <p>
+ * Mocks and spies only look at their own expectations and invocations when verified, so they're split into slices
+ * and verified on a shared pool of daemon threads.  Groups may span several mocks (and ordered groups move their
+ * cursor when verified), so they're always verified on the calling thread, in their usual order.  Rather than
+ * stopping at the first failure, every failure is collected and reported in a single
+ * {@link MoxieFailedVerificationError}.
+ */
+class ParallelVerification {
+
+    static final String PROPERTY = "moxie.parallelVerification";
+
+    // below this many mocks, handing work to other threads costs more than it saves
+    static final int THRESHOLD = 64;
+
+    static private final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    static private ExecutorService executor;
+
+    static boolean isEnabled(int verifiableCount) {
+        return verifiableCount >= THRESHOLD && Boolean.getBoolean(PROPERTY);
+    }
+
+    static void verify(List<Verifiable> verifiables) {
+        List<Throwable> failures = new ArrayList<Throwable>();
+        final List<Verifiable> interceptions = new ArrayList<Verifiable>();
+        for (Verifiable verifiable : verifiables) {
+            if (verifiable instanceof Interception) {
+                interceptions.add(verifiable);
+            } else {
+                verify(verifiable, failures);
+            }
+        }
+
+        List<Future<List<Throwable>>> slices = new ArrayList<Future<List<Throwable>>>();
+        int sliceSize = (interceptions.size() + THREADS - 1) / THREADS;
+        for (int start = 0; start < interceptions.size(); start += sliceSize) {
+            final List<Verifiable> slice = interceptions.subList(start, Math.min(start + sliceSize, interceptions.size()));
+            slices.add(getExecutor().submit(new Callable<List<Throwable>>() {
+                public List<Throwable> call() {
+                    List<Throwable> result = new ArrayList<Throwable>();
+                    for (Verifiable verifiable : slice) {
+                        verify(verifiable, result);
+                    }
+                    return result;
+                }
+            }));
+        }
+        for (Future<List<Throwable>> slice : slices) {
+            failures.addAll(getUninterruptibly(slice));
+        }
+
+        throwFailures(failures);
+    }
+
+    static private void verify(Verifiable verifiable, List<Throwable> failures) {
+        try {
+            verifiable.verify();
+        } catch (RuntimeException e) {
+            failures.add(e);
+        } catch (Error e) {
+            failures.add(e);
+        }
+    }
+
+    static private void throwFailures(List<Throwable> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        List<MoxieFailedVerificationError> verificationErrors = new ArrayList<MoxieFailedVerificationError>();
+        for (Throwable failure : failures) {
+            if (!(failure instanceof MoxieFailedVerificationError)) {
+                // something other than an unmet expectation went wrong - report that as it is
+                rethrow(failure);
+            }
+            verificationErrors.add((MoxieFailedVerificationError) failure);
+        }
+        if (verificationErrors.size() == 1) {
+            throw verificationErrors.get(0);
+        }
+        throw new MoxieFailedVerificationError(verificationErrors);
+    }
+
+    static private void rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new RuntimeException(t);
+    }
+
+    static private <T> T getUninterruptibly(Future<T> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // verify() catches everything itself, so this shouldn't happen
+                    rethrow(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread result = new Thread(runnable, "moxie-verifier-" + threadCount.incrementAndGet());
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+        }
+        return executor;
+    }
+}
@@ -44,6 +44,6 @@ class PowermockInvocationHandler implements InvocationHandler {
         if (methodIntercept == null) {
             throw new MoxieZombieMethodInvocationError("cannot partially mock a static or final method");
         }
-        return methodIntercept.intercept(proxy, new MethodAdapter(method), args, ZOMBIE_METHOD_SUPER_INVOKER);
+        return methodIntercept.intercept(proxy, MethodAdapter.forMethod(method), args, ZOMBIE_METHOD_SUPER_INVOKER);
     }
 }
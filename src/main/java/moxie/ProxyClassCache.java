@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Optional on-disk cache of generated proxy classes for concrete-type mocks, so that JVMs after the first one
+ * can define a proxy class directly instead of generating it again.
+ * <p>
+ * Enabled by setting the <code>moxie.proxyClassCache</code> system property to a directory.  Entries are keyed
+ * by a digest of the bytecode of the mocked class, its superclasses and interfaces, any ancillary types, and
+ * the class generation library; if any of these change, the proxy is simply generated afresh.  Any problem
+ * reading or writing the cache is ignored, and the proxy class generated as if the cache weren't there.
+ * <p>
+ * Entries can also be generated at build time by {@link ProxyPregenerator} and shipped on the classpath under
+ * <code>META-INF/moxie/proxies/</code>; these are used whether or not the system property is set.
+ */
+class ProxyClassCache {
+
+    static final String DIRECTORY_PROPERTY = "moxie.proxyClassCache";
+    static final String PREBUILT_DIRECTORY = "META-INF/moxie/proxies/";
+    static final String PREBUILT_INDEX = "index";
+    static final String SUFFIX = ".proxy";
+
+    // Bump whenever the file format, or anything else that makes existing entries unusable, changes.
+    static private final int FORMAT_VERSION = 1;
+
+    static private final ProxyClassCache INSTANCE = create();
+
+    private final File directory;
+    private final ClassLoader prebuiltLoader;
+    private final Set<String> prebuiltKeys;
+    private final Method defineClass;
+
+    private ProxyClassCache(File directory, ClassLoader prebuiltLoader, Set<String> prebuiltKeys, Method defineClass) {
+        this.directory = directory;
+        this.prebuiltLoader = prebuiltLoader;
+        this.prebuiltKeys = prebuiltKeys;
+        this.defineClass = defineClass;
+    }
+
+    /**
+     * @return the cache, or <code>null</code> if not enabled
+     */
+    static ProxyClassCache getInstance() {
+        return INSTANCE;
+    }
+
+    static private ProxyClassCache create() {
+        File directory = null;
+        String directoryName = System.getProperty(DIRECTORY_PROPERTY, "");
+        if (directoryName.length() > 0) {
+            directory = new File(directoryName);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                directory = null;
+            }
+        }
+        ClassLoader prebuiltLoader = ProxyClassCache.class.getClassLoader();
+        if (prebuiltLoader == null) {
+            prebuiltLoader = ClassLoader.getSystemClassLoader();
+        }
+        Set<String> prebuiltKeys = readPrebuiltKeys(prebuiltLoader);
+        if (directory == null && prebuiltKeys.isEmpty()) {
+            return null;
+        }
+        try {
+            Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class, ProtectionDomain.class);
+            defineClass.setAccessible(true);
+            return new ProxyClassCache(directory, prebuiltLoader, prebuiltKeys, defineClass);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (RuntimeException e) {
+            // security manager, or defineClass not open to us on a newer JDK - can't load cached classes
+            return null;
+        }
+    }
+
+    static private Set<String> readPrebuiltKeys(ClassLoader classLoader) {
+        Set<String> result = new HashSet<String>();
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(PREBUILT_DIRECTORY + PREBUILT_INDEX);
+            while (indexes.hasMoreElements()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(indexes.nextElement().openStream(), "US-ASCII"));
+                try {
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        if (line.trim().length() > 0) {
+                            result.add(line.trim());
+                        }
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        } catch (IOException e) {
+            // use whatever we managed to read
+        }
+        return result;
+    }
+
+    /**
+     * @return key under which to cache a proxy of the given types, or <code>null</code> if the bytecode of one of the
+     * types couldn't be found (and so it's not safe to cache)
+     */
+    String keyFor(Class generator, Class clazz, Class[] ancillaryTypes) {
+        Set<Class> types = new LinkedHashSet<Class>();
+        addTypeAndSupertypes(generator, types);
+        addTypeAndSupertypes(clazz, types);
+        if (ancillaryTypes != null) {
+            for (Class ancillaryType : ancillaryTypes) {
+                addTypeAndSupertypes(ancillaryType, types);
+            }
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+        digest.update((byte) FORMAT_VERSION);
+        for (Class type : types) {
+            byte[] bytecode = readBytecode(type);
+            if (bytecode == null) {
+                return null;
+            }
+            digest.update(type.getName().getBytes());
+            digest.update((byte) 0);
+            digest.update(bytecode);
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+
+    static private void addTypeAndSupertypes(Class type, Set<Class> types) {
+        if (type == null || !types.add(type)) {
+            return;
+        }
+        addTypeAndSupertypes(type.getSuperclass(), types);
+        for (Class iface : type.getInterfaces()) {
+            addTypeAndSupertypes(iface, types);
+        }
+    }
+
+    static private byte[] readBytecode(Class type) {
+        InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class");
+        if (in == null) {
+            return null;
+        }
+        try {
+            try {
+                return readFully(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static private byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Defines the cached proxy class stored under the given key, if there is one.
+     *
+     * @return the defined class and any data stored with it, or <code>null</code> on a cache miss
+     */
+    CachedClass load(String key, ClassLoader classLoader, ProtectionDomain protectionDomain) {
+        try {
+            InputStream entry = null;
+            if (prebuiltKeys.contains(key)) {
+                entry = prebuiltLoader.getResourceAsStream(PREBUILT_DIRECTORY + key + SUFFIX);
+            }
+            if (entry == null && directory != null) {
+                File file = new File(directory, key + SUFFIX);
+                if (file.isFile()) {
+                    entry = new FileInputStream(file);
+                }
+            }
+            if (entry == null) {
+                return null;
+            }
+            String className;
+            byte[] bytecode, attachment;
+            DataInputStream in = new DataInputStream(entry);
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                className = in.readUTF();
+                bytecode = new byte[in.readInt()];
+                in.readFully(bytecode);
+                attachment = new byte[in.readInt()];
+                in.readFully(attachment);
+            } finally {
+                in.close();
+            }
+            if (isLoaded(className, classLoader)) {
+                // a proxy generated earlier in this JVM already has this name
+                return null;
+            }
+            Class definedClass = (Class) defineClass.invoke(classLoader, className, bytecode, 0, bytecode.length, protectionDomain);
+            return new CachedClass(definedClass, attachment);
+        } catch (Exception e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    static private boolean isLoaded(String className, ClassLoader classLoader) {
+        try {
+            Class.forName(className, false, classLoader);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores a newly generated proxy class under the given key.
+     *
+     * @param attachment any extra data the proxy factory needs to set the class up after defining it
+     */
+    void store(String key, String className, byte[] bytecode, byte[] attachment) {
+        if (directory == null) {
+            return;
+        }
+        if (attachment == null) {
+            attachment = new byte[0];
+        }
+        try {
+            // write to a temporary file and rename it into place, so other JVMs never see a partial entry
+            File tempFile = File.createTempFile(key, ".tmp", directory);
+            try {
+                DataOutputStream out = new DataOutputStream(new FileOutputStream(tempFile));
+                try {
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeUTF(className);
+                    out.writeInt(bytecode.length);
+                    out.write(bytecode);
+                    out.writeInt(attachment.length);
+                    out.write(attachment);
+                } finally {
+                    out.close();
+                }
+                tempFile.renameTo(new File(directory, key + SUFFIX));
+            } finally {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            // oh well, we'll generate it again next time.
+        }
+    }
+
+    /**
+     * @return a new, empty directory for class generators that can only write class files to disk
+     */
+    File createScratchDirectory() throws IOException {
+        if (directory == null) {
+            throw new IOException("no cache directory to write to");
+        }
+        File result = File.createTempFile("moxie", ".tmp", directory);
+        if (!result.delete() || !result.mkdir()) {
+            throw new IOException("couldn't create scratch directory " + result);
+        }
+        return result;
+    }
+
+    static byte[] readFile(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return readFully(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    static class CachedClass {
+        final Class definedClass;
+        final byte[] attachment;
+
+        CachedClass(Class definedClass, byte[] attachment) {
+            this.definedClass = definedClass;
+            this.attachment = attachment;
+        }
+    }
+}
@@ -26,10 +26,13 @@ import com.google.dexmaker.stock.ProxyBuilder;
 import net.sf.cglib.proxy.Enhancer;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 
 abstract class ProxyFactory<T> {
@@ -70,35 +73,72 @@ abstract class ProxyFactory<T> {
         }
     }
 
-    private final static Map<TypeKey, ProxyFactory> proxyFactories = new HashMap<TypeKey, ProxyFactory>();
+    // Each type's factory is built at most once, by whichever thread asks first; other threads wanting the same
+    // type wait for it, while threads wanting different types carry on in parallel.
+    private final static ConcurrentMap<TypeKey, FutureTask<ProxyFactory>> proxyFactories = new ConcurrentHashMap<TypeKey, FutureTask<ProxyFactory>>();
 
     @SuppressWarnings("unchecked")
-    public synchronized static <T> ProxyFactory<T> create(Class<T> clazz, Class... ancillaryTypes) {
+    public static <T> ProxyFactory<T> create(final Class<T> clazz, final Class... ancillaryTypes) {
         TypeKey tk = new TypeKey(clazz, ancillaryTypes);
 
-        if (proxyFactories.containsKey(tk)) {
-            return proxyFactories.get(tk);
+        FutureTask<ProxyFactory> future = proxyFactories.get(tk);
+        if (future == null) {
+            FutureTask<ProxyFactory> newFuture = new FutureTask<ProxyFactory>(new Callable<ProxyFactory>() {
+                public ProxyFactory call() {
+                    return newProxyFactory(clazz, ancillaryTypes);
+                }
+            });
+            future = proxyFactories.putIfAbsent(tk, newFuture);
+            if (future == null) {
+                future = newFuture;
+                future.run();
+            }
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // don't cache failures - let the next caller try again
+                    proxyFactories.remove(tk, future);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new MoxieUnexpectedError(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
+    }
 
-        ProxyFactory<T> factory;
+    @SuppressWarnings("unchecked")
+    private static <T> ProxyFactory<T> newProxyFactory(Class<T> clazz, Class... ancillaryTypes) {
         if (clazz == null || clazz.isInterface()) {
-            factory = new JDKProxyFactory<T>(clazz, ancillaryTypes);
+            return new JDKProxyFactory<T>(clazz, ancillaryTypes);
         } else if (onDalvik) {
             if (haveDexmaker) {
-                factory = new DexmakerProxyFactory(clazz, ancillaryTypes);
+                return new DexmakerProxyFactory(clazz, ancillaryTypes);
             } else {
                 throw new UnsupportedOperationException("On Dalvik, you must have Dexmaker on the classpath to mock concrete classes");
             }
         } else if (haveJavassist) {
             // Use Javassist in preference to CGLIB as it doesn't blow up on JDK 1.7 invokedynamic opcodes.
-            factory = new JavassistProxyFactory(clazz, ancillaryTypes);
+            return new JavassistProxyFactory(clazz, ancillaryTypes);
         } else if (haveCglib) {
-            factory = new CGLIBProxyFactory<T>(clazz, ancillaryTypes);
+            return new CGLIBProxyFactory<T>(clazz, ancillaryTypes);
         } else {
             throw new UnsupportedOperationException("You must have Javassist or CGLIB on the classpath to mock concrete classes");
         }
-        proxyFactories.put(tk, factory);
-        return factory;
     }
 
     abstract T createProxy(final MethodIntercept methodInterceptor, Class[] constructorArgTypes, Object[] constructorArgs);
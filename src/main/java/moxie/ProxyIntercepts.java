@@ -22,14 +22,13 @@
 
 package moxie;
 
-import java.util.Collections;
 import java.util.Map;
 
 class ProxyIntercepts {
     private static final ProxyIntercepts INSTANCE = new ProxyIntercepts();
 
-    private final Map<Class, MethodIntercept> classIntercepts = Collections.synchronizedMap(new WeakIdentityMap<Class, MethodIntercept>());
-    private final Map<Object, MethodIntercept> proxyIntercepts = Collections.synchronizedMap(new WeakIdentityMap<Object, MethodIntercept>());
+    private final Map<Class, MethodIntercept> classIntercepts = new ConcurrentWeakIdentityMap<Class, MethodIntercept>();
+    private final Map<Object, MethodIntercept> proxyIntercepts = new ConcurrentWeakIdentityMap<Object, MethodIntercept>();
 
     private ProxyIntercepts() {}
 
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Command-line tool that generates, at build time, the proxy classes needed to mock the concrete classes used by
+ * a set of compiled tests - so that test JVMs can load them instead of generating them.
+ * <p>
+ * Scans every class file under a directory for fields annotated with {@link Mock} or {@link Spy}, and (if Javassist
+ * is on the classpath) for calls to {@link Moxie#mock(Class, MoxieOptions...) Moxie.mock()} and friends with a class
+ * literal as their first argument.  A proxy class is generated for each concrete class found, and saved under
+ * <code>META-INF/moxie/proxies/</code> in the output directory (by default the scanned directory), where Moxie
+ * will find it on the test classpath.  Run it with the test classpath after the tests have been compiled, e.g.
+ * with Maven:
+ * <blockquote><pre>
+ * &lt;plugin&gt;
+ *     &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *     &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *     &lt;executions&gt;
+ *         &lt;execution&gt;
+ *             &lt;phase&gt;process-test-classes&lt;/phase&gt;
+ *             &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *             &lt;configuration&gt;
+ *                 &lt;mainClass&gt;moxie.ProxyPregenerator&lt;/mainClass&gt;
+ *                 &lt;classpathScope&gt;test&lt;/classpathScope&gt;
+ *                 &lt;arguments&gt;&lt;argument&gt;${project.build.testOutputDirectory}&lt;/argument&gt;&lt;/arguments&gt;
+ *             &lt;/configuration&gt;
+ *         &lt;/execution&gt;
+ *     &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre></blockquote>
+ * <p>
+ * Pre-generated proxies are only used if the mocked class, and the version of Javassist or cglib, are the same
+ * at test time as they were at build time; otherwise Moxie quietly generates the proxy as usual.
+ */
+public final class ProxyPregenerator {
+
+    static private boolean haveJavassist = false;
+    static {
+        try {
+            ClassFile.class.getName();
+            haveJavassist = true;
+        } catch (NoClassDefFoundError e) {
+            // oh well, we'll just have to look at annotated fields.
+        }
+    }
+
+    private ProxyPregenerator() {}
+
+    /**
+     * @param args directory of compiled test classes to scan, and optionally a different directory to write
+     *             the pre-generated proxies to
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("usage: java moxie.ProxyPregenerator <test classes directory> [<output directory>]");
+        }
+        File classesDirectory = new File(args[0]);
+        File outputDirectory = new File(args.length > 1 ? args[1] : args[0], ProxyClassCache.PREBUILT_DIRECTORY);
+
+        // The cache picks this up when first used (so this must happen before we touch it), and from then on
+        // saves every proxy we generate.
+        System.setProperty(ProxyClassCache.DIRECTORY_PROPERTY, outputDirectory.getPath());
+        if (ProxyClassCache.getInstance() == null) {
+            throw new IllegalStateException("couldn't create proxy class cache in " + outputDirectory);
+        }
+        File[] staleEntries = outputDirectory.listFiles();
+        if (staleEntries != null) {
+            for (File staleEntry : staleEntries) {
+                ProxyClassCache.deleteRecursively(staleEntry);
+            }
+        }
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ProxyPregenerator.class.getClassLoader();
+        }
+        Set<String> classNames = new TreeSet<String>();
+        for (File classFile : findClassFiles(classesDirectory, new ArrayList<File>())) {
+            findMockedClasses(classesDirectory, classFile, classLoader, classNames);
+        }
+
+        for (String className : classNames) {
+            try {
+                Class clazz = Class.forName(className, false, classLoader);
+                if (!clazz.isInterface() && !clazz.isArray() && !clazz.isPrimitive() && !Modifier.isFinal(clazz.getModifiers())) {
+                    ProxyFactory.create(clazz);
+                }
+            } catch (Throwable t) {
+                System.err.println("moxie: not pre-generating proxy for " + className + ": " + t);
+            }
+        }
+
+        writeIndex(outputDirectory);
+    }
+
+    static private List<File> findClassFiles(File directory, List<File> result) {
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    findClassFiles(child, result);
+                } else if (child.getName().endsWith(".class")) {
+                    result.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    static private void findMockedClasses(File classesDirectory, File classFile, ClassLoader classLoader, Set<String> result) throws IOException {
+        if (haveJavassist) {
+            MockCallScanner.findMockCalls(classFile, result);
+        }
+
+        String path = classFile.getPath().substring(classesDirectory.getPath().length() + 1);
+        String className = path.substring(0, path.length() - ".class".length()).replace(File.separatorChar, '.');
+        try {
+            Class clazz = Class.forName(className, false, classLoader);
+            for (Field f : clazz.getDeclaredFields()) {
+                if (f.getAnnotation(Mock.class) != null || f.getAnnotation(Spy.class) != null) {
+                    // for spies this is only a guess, as it's the class of the field's value that gets proxied
+                    result.add(f.getType().getName());
+                }
+            }
+        } catch (Throwable t) {
+            // can't load it, so can't be a test we'll run
+        }
+    }
+
+    static private void writeIndex(File outputDirectory) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(new File(outputDirectory, ProxyClassCache.PREBUILT_INDEX)), "US-ASCII");
+        try {
+            File[] entries = outputDirectory.listFiles();
+            if (entries != null) {
+                for (File entry : entries) {
+                    String name = entry.getName();
+                    if (name.endsWith(ProxyClassCache.SUFFIX)) {
+                        out.write(name.substring(0, name.length() - ProxyClassCache.SUFFIX.length()));
+                        out.write('\n');
+                    }
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    // Kept apart so that the rest of this class works without Javassist on the classpath.
+    static private class MockCallScanner {
+        @SuppressWarnings("unchecked")
+        static void findMockCalls(File classFile, Set<String> result) throws IOException {
+            ClassFile cf;
+            DataInputStream in = new DataInputStream(new FileInputStream(classFile));
+            try {
+                cf = new ClassFile(in);
+            } finally {
+                in.close();
+            }
+            ConstPool constPool = cf.getConstPool();
+            for (MethodInfo method : (List<MethodInfo>) cf.getMethods()) {
+                CodeAttribute code = method.getCodeAttribute();
+                if (code == null) {
+                    continue;
+                }
+                // The class literal passed to mock() is its first argument, so is the first one loaded since the
+                // last call or store; any others (say, in an array of constructor argument types) come after it.
+                // Any call or store clears it, so a literal used for something else before, say, mock(someVariable)
+                // isn't taken for the mocked class.  (We miss mock() calls with a call among their arguments, but
+                // that only means the proxy gets generated at test time as usual.)
+                String firstClassLiteral = null;
+                CodeIterator iterator = code.iterator();
+                while (iterator.hasNext()) {
+                    int index;
+                    try {
+                        index = iterator.next();
+                    } catch (BadBytecode e) {
+                        break;
+                    }
+                    int opcode = iterator.byteAt(index);
+                    int constIndex;
+                    switch (opcode) {
+                        case Opcode.LDC:
+                        case Opcode.LDC_W:
+                            constIndex = opcode == Opcode.LDC ? iterator.byteAt(index + 1) : iterator.u16bitAt(index + 1);
+                            if (firstClassLiteral == null && constPool.getTag(constIndex) == ConstPool.CONST_Class) {
+                                firstClassLiteral = constPool.getClassInfo(constIndex);
+                            }
+                            break;
+                        case Opcode.INVOKESTATIC:
+                        case Opcode.INVOKEVIRTUAL:
+                            constIndex = iterator.u16bitAt(index + 1);
+                            if (firstClassLiteral != null && isMockCall(constPool.getMethodrefClassName(constIndex), constPool.getMethodrefName(constIndex))) {
+                                result.add(firstClassLiteral);
+                            }
+                            firstClassLiteral = null;
+                            break;
+                        case Opcode.INVOKEINTERFACE:
+                            constIndex = iterator.u16bitAt(index + 1);
+                            if (firstClassLiteral != null && isMockCall(constPool.getInterfaceMethodrefClassName(constIndex), constPool.getInterfaceMethodrefName(constIndex))) {
+                                result.add(firstClassLiteral);
+                            }
+                            firstClassLiteral = null;
+                            break;
+                        case Opcode.INVOKESPECIAL:
+                        case Opcode.INVOKEDYNAMIC:
+                        case Opcode.ASTORE:
+                        case Opcode.ASTORE_0:
+                        case Opcode.ASTORE_1:
+                        case Opcode.ASTORE_2:
+                        case Opcode.ASTORE_3:
+                        case Opcode.PUTFIELD:
+                        case Opcode.PUTSTATIC:
+                        case Opcode.POP:
+                        case Opcode.POP2:
+                        case Opcode.ARETURN:
+                            firstClassLiteral = null;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+
+        static private boolean isMockCall(String className, String methodName) {
+            return ("moxie.Moxie".equals(className) || "moxie.MoxieControl".equals(className)) && "mock".equals(methodName);
+        }
+    }
+}
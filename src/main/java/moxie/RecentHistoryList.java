@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie;
+
+import java.util.AbstractList;
+
+/**
+ * List that only keeps its most recently added elements, discarding the oldest once it holds as many as its capacity.
+ * Element zero is always the oldest one still retained.
+ * <p>
+ * All methods are synchronized, so it's safe to add to from several threads at once.  Removal is not supported.
+ */
+class RecentHistoryList<E> extends AbstractList<E> {
+
+    /**
+     * Capacity used by {@link MoxieOptions#RECENT_HISTORY}; can be changed with the <code>moxie.recentHistorySize</code> system property.
+     */
+    static final int DEFAULT_CAPACITY = Math.max(1, Integer.getInteger("moxie.recentHistorySize", 1000));
+
+    private final Object[] elements;
+    private int next;
+    private int size;
+    private long added;
+
+    RecentHistoryList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be less than zero");
+        }
+        this.elements = new Object[capacity];
+    }
+
+    int getCapacity() {
+        return elements.length;
+    }
+
+    /**
+     * @return how many elements have been discarded to make room for newer ones - i.e. how far element zero is
+     * from the first element ever added
+     */
+    synchronized long getDiscardedCount() {
+        return added - size;
+    }
+
+    @Override
+    public synchronized boolean add(E e) {
+        if (elements.length > 0) {
+            elements[next] = e;
+            next = (next + 1) % elements.length;
+            if (size < elements.length) {
+                size++;
+            }
+            added++;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) elements[(next - size + index + elements.length) % elements.length];
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+}
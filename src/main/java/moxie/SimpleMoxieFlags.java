@@ -23,14 +23,18 @@
 package moxie;
 
 class SimpleMoxieFlags implements MoxieFlags {
-    private final Boolean strictlyOrdered, autoStubbing, partial, tracing, backgroundAware;
+    private final Boolean strictlyOrdered, autoStubbing, partial, tracing, backgroundAware, concurrent, sampledTracing;
+    private final Integer historyLimit;
 
-    public SimpleMoxieFlags(Boolean strictlyOrdered, Boolean autoStubbing, Boolean partial, Boolean tracing, Boolean backgroundAware) {
+    public SimpleMoxieFlags(Boolean strictlyOrdered, Boolean autoStubbing, Boolean partial, Boolean tracing, Boolean backgroundAware, Boolean concurrent, Boolean sampledTracing, Integer historyLimit) {
         this.strictlyOrdered = strictlyOrdered;
         this.autoStubbing = autoStubbing;
         this.partial = partial;
         this.tracing = tracing;
         this.backgroundAware = backgroundAware;
+        this.concurrent = concurrent;
+        this.sampledTracing = sampledTracing;
+        this.historyLimit = historyLimit;
     }
 
     public Boolean isStrictlyOrdered() {
@@ -52,4 +56,16 @@ class SimpleMoxieFlags implements MoxieFlags {
     public Boolean isBackgroundAware() {
         return backgroundAware;
     }
+
+    public Boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public Boolean isSampledTracing() {
+        return sampledTracing;
+    }
+
+    public Integer getHistoryLimit() {
+        return historyLimit;
+    }
 }
@@ -37,8 +37,6 @@ class SimpleSuperInvoker implements MethodIntercept.SuperInvoker {
 
     public Object invokeSuper(Object[] args) throws Throwable {
         MethodAdapter superMethodAdapter = MoxieUtils.guessMethod(superClass, method.getName(), Modifier.isStatic(method.getModifiers()), method.getParameterTypes(), args);
-        Method superMethod = superMethodAdapter.getMethod();
-        superMethod.setAccessible(true);
-        return superMethod.invoke(proxy, args);
+        return MoxieUtils.invokeMethod(superMethodAdapter.getMethod(), proxy, args);
     }
 }
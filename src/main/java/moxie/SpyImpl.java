@@ -22,7 +22,6 @@
 
 package moxie;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -45,12 +44,7 @@ class SpyImpl<T> extends ObjectInterception<T> {
             @Override
             protected void doInvoke() {
                 try {
-                    method.setAccessible(true);
-                    result = method.invoke(realObject, args);
-                } catch (IllegalAccessException e) {
-                    thrown = new MoxieUnexpectedError("error calling target of spy object", e);
-                } catch (InvocationTargetException e) {
-                    thrown = e.getTargetException();
+                    result = MoxieUtils.invokeMethod(method, realObject, args);
                 } catch (Throwable t) {
                     thrown = t;
                 }
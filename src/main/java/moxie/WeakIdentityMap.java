@@ -32,16 +32,32 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+/**
+ * Map whose keys are compared by identity and only weakly referenced.  Not thread-safe.
+ * <p>
+ * The table length is always a power of two, indexed by a spread of the key's identity hash code.  When the
+ * table grows, buckets are moved to the new table a few at a time by subsequent updates rather than all at
+ * once; likewise, entries whose keys have been garbage collected are expunged a few at a time as the map is
+ * updated.  Lookups never change the map, so they are safe while iterating.  Null keys are not supported.
+ */
 class WeakIdentityMap<K,V> extends AbstractMap<K,V> {
 
     static private final int DEFAULT_CAPACITY = 16;
     static private final float DEFAULT_LOAD_FACTOR = 0.75f;
+    static private final int MAXIMUM_TABLE_LENGTH = 1 << 30;
+
+    // Work done by each update on behalf of an in-progress resize, and on expunging collected keys.
+    // Moving a few buckets per put is enough to finish a resize well before the next one is due.
+    static private final int BUCKETS_MOVED_PER_UPDATE = 4;
+    static private final int ENTRIES_EXPUNGED_PER_UPDATE = 8;
 
-    private ReferenceQueue<K> referenceQueue = new ReferenceQueue<K>();
-    private Entry<K,V>[] buckets;
-    private int capacity, size;
-    private float loadFactor;
-    private volatile int serial = 0;
+    private final ReferenceQueue<K> referenceQueue = new ReferenceQueue<K>();
+    private final float loadFactor;
+    private Entry<K,V>[] table;
+    private Entry<K,V>[] oldTable;  // non-null while a resize is in progress
+    private int resizeIndex;        // buckets of oldTable below this index have already been moved
+    private int threshold, size;
+    private int serial = 0;
 
     public WeakIdentityMap() {
         this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
@@ -51,10 +67,19 @@ class WeakIdentityMap<K,V> extends AbstractMap<K,V> {
     }
     @SuppressWarnings("unchecked")
     public WeakIdentityMap(int initialCapacity, float loadFactor) {
-        this.size = 0;
-        this.capacity = initialCapacity;
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initial capacity must not be negative");
+        }
+        if (!(loadFactor > 0)) {
+            throw new IllegalArgumentException("load factor must be positive");
+        }
+        int tableLength = 1;
+        while (tableLength < MAXIMUM_TABLE_LENGTH && tableLength * loadFactor < initialCapacity) {
+            tableLength <<= 1;
+        }
         this.loadFactor = loadFactor;
-        this.buckets = new Entry[(int) (initialCapacity / loadFactor)];
+        this.table = new Entry[tableLength];
+        this.threshold = thresholdFor(tableLength);
     }
     public WeakIdentityMap(Map<? extends K,? extends V> m) {
         this(m.size(), DEFAULT_LOAD_FACTOR);
@@ -63,12 +88,34 @@ class WeakIdentityMap<K,V> extends AbstractMap<K,V> {
 
     @Override
     public V get(Object k) {
-        for (Entry<K, V> entry = buckets[System.identityHashCode(k) % capacity]; entry != null; entry = entry.next) {
-            K entryKey = entry.keyReference.get();
-            if (entryKey == k) {
-                return entry.value;
-            } else if (entryKey == null) {
-                purgeEntry(entry);
+        Entry<K, V> entry = getEntry(k);
+        return entry != null ? entry.value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        return getEntry(k) != null;
+    }
+
+    // Looks in the old table too while a resize is in progress, rather than moving the key's bucket across.
+    private Entry<K, V> getEntry(Object k) {
+        if (k == null) {
+            return null;
+        }
+        int hash = hash(k);
+        if (oldTable != null) {
+            Entry<K, V> entry = findEntry(oldTable[hash & (oldTable.length - 1)], k);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return findEntry(table[hash & (table.length - 1)], k);
+    }
+
+    static private <K, V> Entry<K, V> findEntry(Entry<K, V> first, Object k) {
+        for (Entry<K, V> entry = first; entry != null; entry = entry.next) {
+            if (entry.keyReference.get() == k) {
+                return entry;
             }
         }
         return null;
@@ -76,14 +123,19 @@ class WeakIdentityMap<K,V> extends AbstractMap<K,V> {
 
     @Override
     public V remove(Object k) {
-        for (Entry<K, V> entry = buckets[(System.identityHashCode(k) % capacity)]; entry != null; entry = entry.next) {
-            K entryKey = entry.keyReference.get();
-            if (entryKey == k) {
-                V result = entry.value;
-                purgeEntry(entry);
-                return result;
-            } else if (entryKey == null) {
-                purgeEntry(entry);
+        if (k == null) {
+            return null;
+        }
+        expungeStaleEntries(ENTRIES_EXPUNGED_PER_UPDATE);
+        int hash = hash(k);
+        moveBucketFor(hash);
+        continueResize(BUCKETS_MOVED_PER_UPDATE);
+        int index = hash & (table.length - 1);
+        Entry<K, V> prev = null;
+        for (Entry<K, V> entry = table[index]; entry != null; prev = entry, entry = entry.next) {
+            if (entry.keyReference.get() == k) {
+                unlink(index, prev, entry);
+                return entry.value;
             }
         }
         return null;
@@ -91,185 +143,242 @@ class WeakIdentityMap<K,V> extends AbstractMap<K,V> {
 
     @Override
     public V put(K k, V v) {
-        if (capacity <= size) {
-            purge();
-            if (capacity <= size) {
-                rehash();
-            }
+        if (k == null) {
+            throw new NullPointerException("null keys are not supported");
         }
-
-        int bucketIndex = System.identityHashCode(k) % capacity;
-        for (Entry<K, V> entry = buckets[bucketIndex]; entry != null; entry = entry.next) {
-            K entryKey = entry.getKey();
-            if (entryKey == k) {
+        expungeStaleEntries(ENTRIES_EXPUNGED_PER_UPDATE);
+        int hash = hash(k);
+        moveBucketFor(hash);
+        continueResize(BUCKETS_MOVED_PER_UPDATE);
+        int index = hash & (table.length - 1);
+        for (Entry<K, V> entry = table[index]; entry != null; entry = entry.next) {
+            if (entry.keyReference.get() == k) {
                 V oldValue = entry.value;
-                serial++;
                 entry.value = v;
                 return oldValue;
-            } else if (entryKey == null) {
-                purgeEntry(entry);
             }
         }
         serial++;
-        Entry<K,V> newEntry = new Entry<K,V>(new KeyWeakReference<K>(k, referenceQueue), v);
-        if (buckets[bucketIndex] != null) {
-            newEntry.next = buckets[bucketIndex];
-            buckets[bucketIndex].prev = newEntry;
+        table[index] = new Entry<K,V>(new KeyWeakReference<K>(k, hash, referenceQueue), v, table[index]);
+        if (++size > threshold) {
+            startResize();
         }
-        buckets[bucketIndex] = newEntry;
-        size++;
         return null;
     }
 
+    @Override
+    public int size() {
+        expungeStaleEntries(Integer.MAX_VALUE);
+        return size;
+    }
+
+    @Override
     @SuppressWarnings("unchecked")
-    private void rehash() {
-        capacity = capacity * 3 / 2;
+    public void clear() {
+        serial++;
+        table = new Entry[table.length];
+        oldTable = null;
         size = 0;
-        Entry<K, V>[] oldBuckets = buckets;
-        buckets = (Entry<K, V>[]) new Entry[(int) (capacity / loadFactor)];
-        for (int i = 0; i < oldBuckets.length; i++) {
-            for (Entry<K, V> entry = oldBuckets[i]; entry != null; entry = entry.next) {
-                int newBucketIndex = entry.keyReference.identityHashCode % capacity;
-                serial++;
-                if (buckets[newBucketIndex] == null) {
-                    buckets[newBucketIndex] = new Entry(entry);
-                } else {
-                    Entry<K,V> prev = buckets[newBucketIndex];
-                    while (prev.next != null) {
-                        prev = prev.next;
-                    }
-                    prev.next = new Entry(entry);
-                }
-                size++;
-            }
+        while (referenceQueue.poll() != null) {
+            // discard - the entries are already gone
+        }
+    }
+
+    static private int hash(Object k) {
+        return spread(System.identityHashCode(k));
+    }
+
+    // Identity hash codes aren't guaranteed to vary in their low bits, which are all a power-of-two table uses.
+    static private int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private int thresholdFor(int tableLength) {
+        return tableLength < MAXIMUM_TABLE_LENGTH ? (int) (tableLength * loadFactor) : Integer.MAX_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startResize() {
+        completeResize();
+        if (table.length >= MAXIMUM_TABLE_LENGTH) {
+            return;
+        }
+        serial++;
+        oldTable = table;
+        table = new Entry[oldTable.length * 2];
+        threshold = thresholdFor(table.length);
+        resizeIndex = 0;
+    }
+
+    private void completeResize() {
+        continueResize(Integer.MAX_VALUE);
+    }
+
+    private void continueResize(int bucketCount) {
+        if (oldTable == null) {
+            return;
+        }
+        for (int i = 0; i < bucketCount && resizeIndex < oldTable.length; i++) {
+            moveBucket(resizeIndex++);
+        }
+        if (resizeIndex >= oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    // Makes sure the bucket a key hashes to has been moved, so that updates need only search the new table.
+    private void moveBucketFor(int hash) {
+        if (oldTable != null) {
+            moveBucket(hash & (oldTable.length - 1));
+        }
+    }
+
+    private void moveBucket(int oldIndex) {
+        Entry<K, V> entry = oldTable[oldIndex];
+        oldTable[oldIndex] = null;
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            int index = entry.keyReference.hash & (table.length - 1);
+            entry.next = table[index];
+            table[index] = entry;
+            entry = next;
         }
     }
 
     @SuppressWarnings("unchecked")
-    private void purge() {
-        KeyWeakReference<K> ref = null;
-        while ((ref = (KeyWeakReference<K>) referenceQueue.poll()) != null) {
-            for (Entry<K, V> entry = buckets[(ref.identityHashCode % buckets.length)]; entry != null; entry = entry.next) {
+    private void expungeStaleEntries(int maximum) {
+        for (int i = 0; i < maximum; i++) {
+            KeyWeakReference<K> ref = (KeyWeakReference<K>) referenceQueue.poll();
+            if (ref == null) {
+                return;
+            }
+            moveBucketFor(ref.hash);
+            int index = ref.hash & (table.length - 1);
+            Entry<K, V> prev = null;
+            for (Entry<K, V> entry = table[index]; entry != null; prev = entry, entry = entry.next) {
                 if (entry.keyReference == ref) {
-                    purgeEntry(entry);
+                    unlink(index, prev, entry);
                     break;
                 }
             }
         }
     }
 
-    private void purgeEntry(Entry<K, V> entry) {
+    private void removeEntry(Entry<K, V> target) {
+        int hash = target.keyReference.hash;
+        moveBucketFor(hash);
+        int index = hash & (table.length - 1);
+        Entry<K, V> prev = null;
+        for (Entry<K, V> entry = table[index]; entry != null; prev = entry, entry = entry.next) {
+            if (entry == target) {
+                unlink(index, prev, entry);
+                return;
+            }
+        }
+    }
+
+    // Leaves entry.next alone, so that an iterator positioned on the entry can still move past it.
+    private void unlink(int index, Entry<K, V> prev, Entry<K, V> entry) {
         serial++;
-        if (entry.prev != null) {
-            entry.prev.next = entry.next;
+        if (prev != null) {
+            prev.next = entry.next;
         } else {
-            buckets[entry.keyReference.identityHashCode % capacity] = entry.next;
-        }
-        if (entry.next != null) {
-            entry.next.prev = entry.prev;
+            table[index] = entry.next;
         }
         entry.keyReference.clear();
         size--;
     }
 
-    private static class IteratorState<K,V> {
-        private int index;
-        private Entry<K,V> entry;
-        private IteratorState() {
-            this(0, null);
-        }
-        private IteratorState(int index, Entry<K, V> entry) {
-            this.index = index;
-            this.entry = entry;
-        }
-    }
-
     @Override
     public Set<Map.Entry<K, V>> entrySet() {
         return new AbstractSet<Map.Entry<K, V>>() {
             @Override
             public Iterator<Map.Entry<K, V>> iterator() {
-                final int initialSerial = serial;
+                completeResize();
                 return new Iterator<Map.Entry<K, V>>() {
-                    private IteratorState<K,V> state = new IteratorState<K, V>();
-                    private boolean removeState = false;
+                    private int expectedSerial = serial;
+                    private int index = 0;
+                    private Entry<K,V> cursor, next, lastReturned;
+                    private K nextKey; // held so that the next entry's key can't be collected before it's returned
+
                     public boolean hasNext() {
-                        checkSerial(initialSerial);
-                        return pollNext() != null;
+                        checkSerial(expectedSerial);
+                        return next != null || advance();
                     }
 
-                    private IteratorState<K,V> pollNext() {
-                        int index = state.index;
-                        if (state.entry != null) {
-                            if (state.entry.next != null) {
-                                return new IteratorState<K, V>(index, state.entry.next);
+                    private boolean advance() {
+                        while (true) {
+                            Entry<K,V> candidate = cursor != null ? cursor.next : null;
+                            while (candidate == null) {
+                                if (index >= table.length) {
+                                    return false;
+                                }
+                                candidate = table[index++];
                             }
-                        }
-                        while (++index < buckets.length) {
-                            if (buckets[index] != null) {
-                                return new IteratorState<K, V>(index, buckets[index]);
+                            cursor = candidate;
+                            nextKey = candidate.getKey();
+                            if (nextKey != null) {
+                                next = candidate;
+                                return true;
                             }
                         }
-                        return null;
                     }
 
                     public Map.Entry<K, V> next() {
-                        checkSerial(initialSerial);
-                        removeState = false;
-                        state = pollNext();
-                        if (state == null) {
+                        if (!hasNext()) {
                             throw new NoSuchElementException();
                         }
-                        return state.entry;
+                        lastReturned = next;
+                        next = null;
+                        nextKey = null;
+                        return lastReturned;
                     }
 
                     public void remove() {
-                        if (removeState) {
+                        if (lastReturned == null) {
                             throw new IllegalStateException("can't call remove() twice in succession");
                         }
-                        checkSerial(initialSerial);
-                        purgeEntry(state.entry);
-                        state.entry = state.entry.prev;
-                        removeState = false;
+                        checkSerial(expectedSerial);
+                        removeEntry(lastReturned);
+                        expectedSerial = serial;
+                        lastReturned = null;
                     }
                 };
             }
 
             @Override
             public int size() {
-                return size;
+                return WeakIdentityMap.this.size();
             }
         };
     }
 
-    private void checkSerial(int initialSerial) {
-        if (serial != initialSerial) {
+    private void checkSerial(int expectedSerial) {
+        if (serial != expectedSerial) {
             throw new ConcurrentModificationException();
         }
     }
 
     private static class KeyWeakReference<K> extends WeakReference<K> {
-        private final int identityHashCode;
+        private final int hash;
 
-        public KeyWeakReference(K k, ReferenceQueue<? super K> referenceQueue) {
+        public KeyWeakReference(K k, int hash, ReferenceQueue<? super K> referenceQueue) {
             super(k, referenceQueue);
-            this.identityHashCode = System.identityHashCode(k);
+            this.hash = hash;
         }
     }
 
     private static class Entry<K,V> implements Map.Entry<K,V> {
 
-        private Entry<K,V> next, prev;
+        private Entry<K,V> next;
         private final KeyWeakReference<K> keyReference;
         private V value;
 
-        private Entry(Entry<K,V> oldEntry) {
-            this(oldEntry.keyReference, oldEntry.value);
-        }
-
-        public Entry(KeyWeakReference<K> k, V v) {
+        public Entry(KeyWeakReference<K> k, V v, Entry<K,V> next) {
             this.keyReference = k;
             this.value = v;
+            this.next = next;
         }
 
         public K getKey() {
@@ -45,15 +45,14 @@ import java.util.List;
  * @param <T> type of the array to be matched (NOT the element type of the array)
  */
 public class IsArray<T> extends TypeSafeMatcher<T> {
-    private final List<Matcher> elementMatchers;
+    private final Matcher[] elementMatchers;
 
-    @SuppressWarnings("unchecked")
     public IsArray(Matcher... elementMatchers) {
-        this((List) Arrays.asList(elementMatchers.clone()));
+        this.elementMatchers = elementMatchers.clone();
     }
 
     public IsArray(List<Matcher> elementMatchers) {
-        this.elementMatchers = new ArrayList<Matcher>(elementMatchers);
+        this.elementMatchers = elementMatchers.toArray(new Matcher[elementMatchers.size()]);
     }
 
     static public <T> IsArray<T[]> array(Matcher<? super T>... elementMatchers) {
@@ -164,15 +163,28 @@ public class IsArray<T> extends TypeSafeMatcher<T> {
 
     @Override
     protected boolean matchesSafely(T item) {
+        if (item instanceof Object[]) {
+            // fast path for object arrays (including method argument arrays) - no reflection needed
+            Object[] array = (Object[]) item;
+            if (elementMatchers.length != array.length) {
+                return false;
+            }
+            for (int i = 0; i < array.length; i++) {
+                if (!elementMatchers[i].matches(array[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
         if (!item.getClass().isArray()) {
             return false;
         }
         int arraySize = Array.getLength(item);
-        if (elementMatchers.size() != arraySize) {
+        if (elementMatchers.length != arraySize) {
             return false;
         }
         for (int i = 0; i < arraySize; i++) {
-            if (!elementMatchers.get(i).matches(Array.get(item, i))) {
+            if (!elementMatchers[i].matches(Array.get(item, i))) {
                 return false;
             }
         }
@@ -186,12 +198,12 @@ public class IsArray<T> extends TypeSafeMatcher<T> {
             return;
         }
         int arraySize = Array.getLength(item);
-        if (elementMatchers.size() != arraySize) {
+        if (elementMatchers.length != arraySize) {
             mismatchDescription.appendText("length was ").appendValue(arraySize);
             return;
         }
         for (int i = 0; i < arraySize; i++) {
-            Matcher elementMatcher = elementMatchers.get(i);
+            Matcher elementMatcher = elementMatchers[i];
             Object element = Array.get(item, i);
             if (!elementMatcher.matches(element)) {
                 mismatchDescription.appendText("element ").appendValue(i).appendText(" ");
@@ -202,6 +214,6 @@ public class IsArray<T> extends TypeSafeMatcher<T> {
     }
 
     public void describeTo(Description description) {
-        description.appendList("[", ", ", "]", elementMatchers);
+        description.appendList("[", ", ", "]", Arrays.asList(elementMatchers));
     }
 }
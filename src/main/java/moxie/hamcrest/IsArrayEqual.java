@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.hamcrest.core.IsEqual;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ *
+ * Matches any array (including primitive arrays) equal to a given array, in the same way as an {@link IsArray}
+ * made up of an {@link IsEqual} for each element of the given array.
+ * <p>
+ *
+ * Unlike such an <code>IsArray</code>, this class compares arrays of the same type with a single call to
+ * {@link Arrays#equals(int[], int[]) Arrays.equals()} (or {@link Arrays#deepEquals(Object[], Object[])
+ * Arrays.deepEquals()} for arrays of objects), doesn't box primitive elements, and doesn't create anything per
+ * element until a description is asked for.  The given array is copied, so later changes to it aren't seen.
+ * <p>
+ * @param <T> type of the array to be matched (NOT the element type of the array)
+ */
+public class IsArrayEqual<T> extends TypeSafeMatcher<T> {
+    private final Object array;
+
+    private IsArrayEqual(Object array) {
+        this.array = array;
+    }
+
+    static public <T> IsArrayEqual<T[]> arrayEqualTo(T... elements) {
+        return new IsArrayEqual<T[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<boolean[]> booleanArrayEqualTo(boolean... elements) {
+        return new IsArrayEqual<boolean[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<byte[]> byteArrayEqualTo(byte... elements) {
+        return new IsArrayEqual<byte[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<char[]> charArrayEqualTo(char... elements) {
+        return new IsArrayEqual<char[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<short[]> shortArrayEqualTo(short... elements) {
+        return new IsArrayEqual<short[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<int[]> intArrayEqualTo(int... elements) {
+        return new IsArrayEqual<int[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<long[]> longArrayEqualTo(long... elements) {
+        return new IsArrayEqual<long[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<float[]> floatArrayEqualTo(float... elements) {
+        return new IsArrayEqual<float[]>(elements.clone());
+    }
+
+    static public IsArrayEqual<double[]> doubleArrayEqualTo(double... elements) {
+        return new IsArrayEqual<double[]>(elements.clone());
+    }
+
+    @Override
+    protected boolean matchesSafely(T item) {
+        if (array instanceof Object[]) {
+            if (item instanceof Object[]) {
+                // item first, so that element equals() methods are called on the actual values, as IsEqual does
+                return Arrays.deepEquals((Object[]) item, (Object[]) array);
+            }
+        } else if (item.getClass() == array.getClass()) {
+            if (array instanceof byte[]) {
+                return Arrays.equals((byte[]) item, (byte[]) array);
+            } else if (array instanceof int[]) {
+                return Arrays.equals((int[]) item, (int[]) array);
+            } else if (array instanceof long[]) {
+                return Arrays.equals((long[]) item, (long[]) array);
+            } else if (array instanceof char[]) {
+                return Arrays.equals((char[]) item, (char[]) array);
+            } else if (array instanceof double[]) {
+                return Arrays.equals((double[]) item, (double[]) array);
+            } else if (array instanceof float[]) {
+                return Arrays.equals((float[]) item, (float[]) array);
+            } else if (array instanceof short[]) {
+                return Arrays.equals((short[]) item, (short[]) array);
+            } else if (array instanceof boolean[]) {
+                return Arrays.equals((boolean[]) item, (boolean[]) array);
+            }
+        }
+        // arrays of different types can still have equal (boxed) elements
+        return item.getClass().isArray() && Array.getLength(item) == Array.getLength(array) && firstMismatch(item) == -1;
+    }
+
+    /**
+     * @return index of the first element of <code>item</code> (which must be an array of the same length as ours)
+     * that isn't equal to the corresponding element of our array, or -1 if there isn't one
+     */
+    private int firstMismatch(Object item) {
+        int arraySize = Array.getLength(item);
+        for (int i = 0; i < arraySize; i++) {
+            if (!elementMatcher(i).matches(Array.get(item, i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Matcher<Object> elementMatcher(int index) {
+        return IsEqual.equalTo(Array.get(array, index));
+    }
+
+    @Override
+    protected void describeMismatchSafely(T item, Description mismatchDescription) {
+        if (!item.getClass().isArray()) {
+            mismatchDescription.appendText("was not an array");
+            return;
+        }
+        int arraySize = Array.getLength(item);
+        if (Array.getLength(array) != arraySize) {
+            mismatchDescription.appendText("length was ").appendValue(arraySize);
+            return;
+        }
+        int index = firstMismatch(item);
+        if (index != -1) {
+            mismatchDescription.appendText("element ").appendValue(index).appendText(" ");
+            elementMatcher(index).describeMismatch(Array.get(item, index), mismatchDescription);
+        }
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("[");
+        int arraySize = Array.getLength(array);
+        for (int i = 0; i < arraySize; i++) {
+            if (i > 0) {
+                description.appendText(", ");
+            }
+            elementMatcher(i).describeTo(description);
+        }
+        description.appendText("]");
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+
+/**
+ * Matches any {@link CharSequence} equal to a given string, ignoring case.
+ * <p>
+ * Based on Hamcrest's {@link org.hamcrest.text.IsEqualIgnoringCase}, but typed on <code>CharSequence</code> rather than
+ * {@link String}: a {@link StringBuilder}, {@link java.nio.CharBuffer} or other <code>CharSequence</code> is matched by
+ * its contents where the original would have rejected it.
+ */
+public class IsEqualIgnoringCase extends TypeSafeMatcher<CharSequence> {
+    private final String string;
+
+    public IsEqualIgnoringCase(String string) {
+        if (string == null) {
+            throw new IllegalArgumentException("Non-null value required by IsEqualIgnoringCase()");
+        }
+        this.string = string;
+    }
+
+    @Override
+    protected boolean matchesSafely(CharSequence item) {
+        if (item instanceof String) {
+            return string.equalsIgnoreCase((String) item);
+        }
+        if (item.length() != string.length()) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (!equalsIgnoreCase(item.charAt(i), string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void describeMismatchSafely(CharSequence item, Description mismatchDescription) {
+        mismatchDescription.appendText("was ").appendText(item.toString());
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("equalToIgnoringCase(").appendValue(string).appendText(")");
+    }
+
+    /**
+     * Compares two characters the same way as {@link String#equalsIgnoreCase(String)}.
+     */
+    static boolean equalsIgnoreCase(char c1, char c2) {
+        if (c1 == c2) {
+            return true;
+        }
+        char u1 = Character.toUpperCase(c1);
+        char u2 = Character.toUpperCase(c2);
+        return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
+    }
+
+    public static IsEqualIgnoringCase equalToIgnoringCase(String string) {
+        return new IsEqualIgnoringCase(string);
+    }
+}
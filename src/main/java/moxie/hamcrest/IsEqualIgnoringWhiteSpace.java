@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+
+/**
+ * Matches any {@link CharSequence} equal to a given string, ignoring case, leading and trailing white space, and
+ * treating any run of white space as a single space.
+ * <p>
+ * Based on Hamcrest's {@link org.hamcrest.text.IsEqualIgnoringWhiteSpace}, but typed on <code>CharSequence</code>
+ * rather than {@link String}: a {@link StringBuilder}, {@link java.nio.CharBuffer} or other <code>CharSequence</code>
+ * is matched by its contents where the original would have rejected it. The item is compared in place rather than
+ * by building a stripped copy of it.
+ */
+public class IsEqualIgnoringWhiteSpace extends TypeSafeMatcher<CharSequence> {
+    private final String string;
+    private final String strippedString;
+
+    public IsEqualIgnoringWhiteSpace(String string) {
+        if (string == null) {
+            throw new IllegalArgumentException("Non-null value required by IsEqualIgnoringWhiteSpace()");
+        }
+        this.string = string;
+        this.strippedString = stripSpace(string);
+    }
+
+    @Override
+    protected boolean matchesSafely(CharSequence item) {
+        int start = 0;
+        int end = item.length();
+        while (start < end && isTrimmed(item.charAt(start))) {
+            start++;
+        }
+        while (end > start && isTrimmed(item.charAt(end - 1))) {
+            end--;
+        }
+
+        // walk the item as if it had been through stripSpace(), comparing as we go
+        int matched = 0;
+        boolean lastWasSpace = false;
+        for (int i = start; i < end; i++) {
+            char c = item.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!lastWasSpace) {
+                    if (matched == strippedString.length() || strippedString.charAt(matched) != ' ') {
+                        return false;
+                    }
+                    matched++;
+                }
+                lastWasSpace = true;
+            } else {
+                if (matched == strippedString.length() || !IsEqualIgnoringCase.equalsIgnoreCase(c, strippedString.charAt(matched))) {
+                    return false;
+                }
+                matched++;
+                lastWasSpace = false;
+            }
+        }
+        return matched == strippedString.length();
+    }
+
+    @Override
+    protected void describeMismatchSafely(CharSequence item, Description mismatchDescription) {
+        mismatchDescription.appendText("was  ").appendText(stripSpace(item));
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("equalToIgnoringWhiteSpace(").appendValue(string).appendText(")");
+    }
+
+    /**
+     * Characters that end up at either end of a stripped string are removed by {@link String#trim()}; these are
+     * the characters that aren't white space, but that <code>trim()</code> removes anyway.
+     */
+    static private boolean isTrimmed(char c) {
+        return c <= ' ' || Character.isWhitespace(c);
+    }
+
+    static private String stripSpace(CharSequence toBeStripped) {
+        StringBuilder result = new StringBuilder();
+        boolean lastWasSpace = true;
+        for (int i = 0; i < toBeStripped.length(); i++) {
+            char c = toBeStripped.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!lastWasSpace) {
+                    result.append(' ');
+                }
+                lastWasSpace = true;
+            } else {
+                result.append(c);
+                lastWasSpace = false;
+            }
+        }
+        return result.toString().trim();
+    }
+
+    public static IsEqualIgnoringWhiteSpace equalToIgnoringWhiteSpace(String string) {
+        return new IsEqualIgnoringWhiteSpace(string);
+    }
+}
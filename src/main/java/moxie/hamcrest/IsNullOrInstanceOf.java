@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2013 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxie.hamcrest;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+
+/**
+ *
+ * Matches <code>null</code>, or any object which is an instance of a given class.
+ * <p>
+ *
+ * Equivalent to <code>anyOf(nullValue(), instanceOf(clazz))</code>, and describes itself the same way - but doesn't
+ * allocate an iterator on every match, which adds up when used to match method parameters on frequently-called mocks.
+ * <p>
+ * @param <T> type of the item to be matched
+ */
+public class IsNullOrInstanceOf<T> extends BaseMatcher<T> {
+    private final Class<?> expectedClass;
+
+    public IsNullOrInstanceOf(Class<?> expectedClass) {
+        this.expectedClass = expectedClass;
+    }
+
+    public static <T> IsNullOrInstanceOf<T> nullOrInstanceOf(Class<?> expectedClass) {
+        return new IsNullOrInstanceOf<T>(expectedClass);
+    }
+
+    public boolean matches(Object item) {
+        return item == null || expectedClass.isInstance(item);
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("(null or an instance of ").appendText(expectedClass.getName()).appendText(")");
+    }
+}
@@ -22,20 +22,36 @@
 
 package moxie.hamcrest;
 
-import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
-import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Matches any object whose string representation (as returned by the {@link Object#toString() toString()} method)
  * matches a provided regular expression.
+ * <p>
+ * {@link CharSequence}s are matched directly, without converting them to strings first.  Each thread matching
+ * against a given instance reuses the same {@link Matcher}, and regular expressions given as strings are compiled
+ * once and shared between all instances.
  * @param <T> the type of the item to be matched
  */
 public class MatchesRegexp<T> extends TypeSafeMatcher<T> {
+    // patterns are interned so that expectations set up over and over (in a loop, or in every test) don't recompile
+    // them; bounded because the regular expressions could come from anywhere.
+    static private final int MAX_CACHED_PATTERNS = 256;
+    static private final ConcurrentMap<PatternKey, Pattern> patterns = new ConcurrentHashMap<PatternKey, Pattern>();
+
     private final Pattern pattern;
+    private final ThreadLocal<Matcher> matchers = new ThreadLocal<Matcher>() {
+        @Override
+        protected Matcher initialValue() {
+            return pattern.matcher("");
+        }
+    };
 
     public MatchesRegexp(Pattern pattern) {
         this.pattern = pattern;
@@ -43,7 +59,14 @@ public class MatchesRegexp<T> extends TypeSafeMatcher<T> {
 
     @Override
     protected boolean matchesSafely(T item) {
-        return pattern.matcher(item.toString()).matches();
+        CharSequence input = item instanceof CharSequence ? (CharSequence) item : item.toString();
+        Matcher matcher = matchers.get();
+        try {
+            return matcher.reset(input).matches();
+        } finally {
+            // don't hang on to the item until the next match
+            matcher.reset("");
+        }
     }
 
     public void describeTo(Description description) {
@@ -55,7 +78,54 @@ public class MatchesRegexp<T> extends TypeSafeMatcher<T> {
     }
 
     public static <T> MatchesRegexp<T> matchesRegexp(String pattern) {
-        return new MatchesRegexp<T>(Pattern.compile(pattern));
+        return matchesRegexp(pattern, 0);
+    }
+
+    public static <T> MatchesRegexp<T> matchesRegexp(String pattern, int flags) {
+        return new MatchesRegexp<T>(compile(pattern, flags));
+    }
+
+    /**
+     * @return the same {@link Pattern} as {@link Pattern#compile(String, int)}, shared with any earlier caller that
+     * asked for the same regular expression and flags
+     */
+    static Pattern compile(String regex, int flags) {
+        PatternKey key = new PatternKey(regex, flags);
+        Pattern result = patterns.get(key);
+        if (result == null) {
+            result = Pattern.compile(regex, flags);
+            if (patterns.size() >= MAX_CACHED_PATTERNS) {
+                patterns.clear();
+            }
+            Pattern existing = patterns.putIfAbsent(key, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
     }
 
+    static private class PatternKey {
+        private final String regex;
+        private final int flags;
+
+        PatternKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PatternKey)) {
+                return false;
+            }
+            PatternKey other = (PatternKey) o;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return regex.hashCode() * 31 + flags;
+        }
+    }
 }
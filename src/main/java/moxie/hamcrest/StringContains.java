@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+/**
+ * Matches any {@link CharSequence} containing a given substring.
+ */
+public class StringContains extends SubstringMatcher {
+
+    public StringContains(String substring) {
+        super(substring);
+    }
+
+    @Override
+    protected boolean evalSubstringOf(CharSequence item) {
+        if (item instanceof String) {
+            return ((String) item).indexOf(substring) >= 0;
+        }
+        for (int i = 0; i <= item.length() - substring.length(); i++) {
+            if (regionMatches(item, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected String relationship() {
+        return "containing";
+    }
+
+    public static StringContains containsString(String substring) {
+        return new StringContains(substring);
+    }
+}
@@ -1,49 +1,50 @@
-/*
- * Copyright (c) 2010-2012 Moxie contributors
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in
- * all copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
- * THE SOFTWARE.
- */
-
-package moxie;
-
-import org.hamcrest.Matcher;
-
-class MatcherReport {
-    private final Matcher matcher;
-    private final Class expectedType;
-//    private final Throwable whereInstantiated;
-
-    public MatcherReport(Matcher matcher, Class expectedType) {
-        this.matcher = matcher;
-        this.expectedType = expectedType;
-//        this.whereInstantiated = new InstantiationStackTrace("[matcher=\"" + matcher + "\", class=\""+ expectedType + "\"]");
-    }
-
-    public Matcher getMatcher() {
-        return matcher;
-    }
-
-    public Class getExpectedType() {
-        return expectedType;
-    }
-
-//    public Throwable getWhereInstantiated() {
-//        return whereInstantiated;
-//    }
-}
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+/**
+ * Matches any {@link CharSequence} starting with a given prefix.
+ */
+public class StringStartsWith extends SubstringMatcher {
+
+    public StringStartsWith(String prefix) {
+        super(prefix);
+    }
+
+    @Override
+    protected boolean evalSubstringOf(CharSequence item) {
+        if (item instanceof String) {
+            return ((String) item).startsWith(substring);
+        }
+        return regionMatches(item, 0);
+    }
+
+    @Override
+    protected String relationship() {
+        return "starting with";
+    }
+
+    public static StringStartsWith startsWith(String prefix) {
+        return new StringStartsWith(prefix);
+    }
+}
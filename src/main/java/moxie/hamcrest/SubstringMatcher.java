@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxie.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+
+/**
+ * Base class for matchers that look for a fixed string within a {@link CharSequence}.
+ * <p>
+ * Based on Hamcrest's {@link org.hamcrest.core.SubstringMatcher}, but typed on <code>CharSequence</code> rather than
+ * {@link String}: a {@link StringBuilder}, {@link java.nio.CharBuffer} or other <code>CharSequence</code> is matched by
+ * its contents where the original would have rejected it. The item being matched is never copied.
+ */
+public abstract class SubstringMatcher extends TypeSafeMatcher<CharSequence> {
+    protected final String substring;
+
+    protected SubstringMatcher(String substring) {
+        this.substring = substring;
+    }
+
+    @Override
+    protected boolean matchesSafely(CharSequence item) {
+        return evalSubstringOf(item);
+    }
+
+    @Override
+    protected void describeMismatchSafely(CharSequence item, Description mismatchDescription) {
+        mismatchDescription.appendText("was \"").appendText(item.toString()).appendText("\"");
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("a string ").appendText(relationship()).appendText(" ").appendValue(substring);
+    }
+
+    protected abstract boolean evalSubstringOf(CharSequence item);
+
+    protected abstract String relationship();
+
+    /**
+     * @return whether the characters of <code>item</code> starting at <code>offset</code> are those of the substring
+     */
+    protected boolean regionMatches(CharSequence item, int offset) {
+        if (offset < 0 || offset + substring.length() > item.length()) {
+            return false;
+        }
+        for (int i = 0; i < substring.length(); i++) {
+            if (item.charAt(offset + i) != substring.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -560,6 +560,30 @@ public class CheckTest {
         Moxie.check(mock).inGroup(group).once().got().add("four");
     }
 
+    @Test
+    public void orderedChecks_indexedLookupSeesInvocationsMadeAfterEarlierChecks() {
+        mock.add("one");
+        mock.get(0);
+        mock.remove("one");
+        mock.get(0);
+        Moxie.check(mock).inGroup(group).once().got().add("one");
+        Moxie.check(mock).inGroup(group).times(2).got().get(0);
+        mock.add("two");
+        mock.remove("one");
+        Moxie.check(mock).inGroup(group).once().got().add("two");
+        Moxie.check(mock).inGroup(group).once().got().remove("one");
+        Moxie.check(mock).times(2).got().remove("one");
+    }
+
+    @Test(expected= MoxieFailedCheckError.class)
+    public void orderedChecks_indexedLookupIgnoresInvocationsBeforeGroupCursor() {
+        mock.add("one");
+        mock.get(0);
+        mock.remove("one");
+        Moxie.check(mock).inGroup(group).once().got().remove("one");
+        Moxie.check(mock).inGroup(group).once().got().get(0);
+    }
+
     @Test(expected = MoxieSyntaxError.class)
     public void threw_abuse() {
         try {
@@ -610,4 +634,76 @@ public class CheckTest {
         Moxie.check(mock).got().add("foo");
         Moxie.checkNothingElseUnexpectedHappened();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void recentHistory_onlyRecentInvocationsChecked() {
+        List<String> recent = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.RECENT_HISTORY);
+        recent.add("old");
+        for (int i = 0; i < 1000; i++) {
+            recent.add("new");
+        }
+        Moxie.check(recent).never().got().add("old");
+        Moxie.check(recent).times(1000).got().add("new");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void recentHistory_orderedChecksAfterOldInvocationsDropped() {
+        List<String> recent = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.RECENT_HISTORY);
+        for (int i = 0; i < 1000; i++) {
+            recent.add("filler");
+        }
+        recent.get(3);
+        Moxie.check(recent).inGroup(group).got().get(3);
+        recent.get(4);
+        recent.get(5);
+        Moxie.check(recent).inGroup(group).got().get(4);
+        Moxie.check(recent).inGroup(group).got().get(5);
+    }
+
+    @Test(expected = MoxieFailedCheckError.class)
+    @SuppressWarnings("unchecked")
+    public void recentHistory_orderedChecksAfterOldInvocationsDropped_sadPath() {
+        List<String> recent = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.RECENT_HISTORY);
+        for (int i = 0; i < 1000; i++) {
+            recent.add("filler");
+        }
+        recent.get(3);
+        recent.get(4);
+        recent.get(5);
+        Moxie.check(recent).inGroup(group).got().get(4);
+        Moxie.check(recent).inGroup(group).got().get(3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SuppressWarnings("unchecked")
+    public void noHistory_cannotCheck() {
+        List<String> counted = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.NO_HISTORY);
+        counted.add("foo");
+        Moxie.check(counted).got().add("foo");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void noHistory_ignoredByCheckNothingElseHappened() {
+        List<String> counted = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.NO_HISTORY);
+        List<String> checked = Moxie.mock(List.class, MoxieOptions.PERMISSIVE);
+        counted.add("foo");
+        checked.add("bar");
+        Moxie.check(checked).got().add("bar");
+        Moxie.checkNothingElseHappened();
+        Moxie.checkNothingElseUnexpectedHappened();
+        Moxie.checkNothingElseHappened(counted, checked);
+    }
+
+    @Test(expected = MoxieUncheckedInvocationError.class)
+    @SuppressWarnings("unchecked")
+    public void noHistory_otherMocksStillCheckedByCheckNothingElseHappened() {
+        List<String> counted = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.NO_HISTORY);
+        List<String> checked = Moxie.mock(List.class, MoxieOptions.PERMISSIVE);
+        counted.add("foo");
+        checked.add("bar");
+        Moxie.checkNothingElseHappened();
+    }
 }
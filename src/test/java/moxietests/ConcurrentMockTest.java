@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2013 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package moxietests;
+
+import moxie.Moxie;
+import moxie.MoxieOptions;
+import moxie.MoxieUnexpectedInvocationError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentMockTest {
+
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 5000;
+    private static final int PROPAGATED_TASKS = 100000;
+    private static final int PROPAGATED_MOCKS = 20000;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void manyThreadsOneMock_historyIsComplete() throws Exception {
+        final List<String> mock = Moxie.mock(List.class, MoxieOptions.CONCURRENT);
+        Moxie.stub(mock).willReturn("value").on().get(Moxie.anyInt());
+
+        runInParallel(new Runnable() {
+            public void run() {
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    Assert.assertEquals("value", mock.get(i));
+                }
+            }
+        });
+
+        Moxie.check(mock).times(THREADS * CALLS_PER_THREAD).got().get(Moxie.anyInt());
+        Moxie.check(mock).times(THREADS).got().get(CALLS_PER_THREAD - 1);
+        Moxie.verify(mock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void manyThreadsOneMock_cardinalityIsNeverExceeded() throws Exception {
+        final List<String> mock = Moxie.mock(List.class, MoxieOptions.CONCURRENT, MoxieOptions.IGNORE_BACKGROUND_FAILURES);
+        Moxie.expect(mock).times(1000).willReturn("value").on().get(0);
+        final AtomicInteger successes = new AtomicInteger();
+
+        runInParallel(new Runnable() {
+            public void run() {
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        mock.get(0);
+                        successes.incrementAndGet();
+                    } catch (MoxieUnexpectedInvocationError e) {
+                        // expected once the cardinality has been used up
+                    }
+                }
+            }
+        });
+
+        Assert.assertEquals(1000, successes.get());
+        Moxie.verify(mock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void manyThreadsCreatingClassMocks_eachProxyKeepsItsOwnBehavior() throws Exception {
+        runInParallel(new Runnable() {
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    ArrayList<String> mock = Moxie.mock(ArrayList.class, MoxieOptions.NO_TRACE);
+                    Moxie.stub(mock).willReturn(Integer.toString(i)).on().get(0);
+                    Assert.assertEquals(Integer.toString(i), mock.get(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void manyThreadsCreatingMocksOfDifferentTypes_allSucceed() throws Exception {
+        final Class[] types = { ArrayList.class, LinkedList.class, Vector.class, HashMap.class, TreeMap.class, Random.class, Date.class, Object.class };
+        final AtomicInteger nextType = new AtomicInteger();
+
+        runInParallel(new Runnable() {
+            public void run() {
+                int first = nextType.getAndIncrement();
+                for (int i = 0; i < types.length; i++) {
+                    Class type = types[(first + i) % types.length];
+                    Assert.assertTrue(type.isInstance(Moxie.mock(type, MoxieOptions.NO_TRACE)));
+                }
+            }
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void propagatedControl_usedByPoolThreads() throws Exception {
+        final List<String> mock = Moxie.mock(List.class, MoxieOptions.CONCURRENT);
+        Moxie.stub(mock).willReturn("value").on().get(Moxie.anyInt());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < PROPAGATED_TASKS; i++) {
+                final int index = i;
+                futures.add(executor.submit(Moxie.propagateThreadLocalControl(new Runnable() {
+                    public void run() {
+                        Assert.assertEquals("value", mock.get(index));
+                        Moxie.verifySoFar(mock);
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Moxie.check(mock).times(PROPAGATED_TASKS).got().get(Moxie.anyInt());
+        Moxie.verify(mock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void propagatedControl_mocksCreatedAndVerifiedByPoolThreads() throws Exception {
+        final List<Object> unverified = new Vector<Object>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < PROPAGATED_MOCKS; i++) {
+                final int index = i;
+                futures.add(executor.submit(Moxie.propagateThreadLocalControl(new Runnable() {
+                    public void run() {
+                        List<String> mock = Moxie.mock(List.class);
+                        Moxie.expect(mock).willReturn(index).on().size();
+                        Assert.assertEquals(index, mock.size());
+                        if (index % 2 == 0) {
+                            Moxie.verify(mock);
+                        } else {
+                            unverified.add(mock);
+                            unverified.add(Moxie.group());
+                        }
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(PROPAGATED_MOCKS, unverified.size());
+        Moxie.verify(unverified.toArray());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void propagatedControl_poolThreadGoesBackToItsOwnControl() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final List<String> mock = executor.submit(Moxie.propagateThreadLocalControl(new Callable<List<String>>() {
+                public List<String> call() {
+                    return Moxie.mock(List.class);
+                }
+            })).get();
+            Moxie.expect(mock).willReturn(3).on().size();
+            Assert.assertEquals(3, mock.size());
+            Moxie.verifySoFar(mock);
+
+            try {
+                executor.submit(new Runnable() {
+                    public void run() {
+                        Moxie.verifySoFar(mock);
+                    }
+                }).get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+            Moxie.verify(mock);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void runInParallel(final Runnable runnable) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        runnable.run();
+                    } catch (Throwable t) {
+                        synchronized (errors) {
+                            errors.add(t);
+                        }
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!errors.isEmpty()) {
+            throw new AssertionError(errors.get(0));
+        }
+    }
+}
@@ -23,6 +23,8 @@
 package moxietests;
 
 import moxie.Mock;
+import moxie.Moxie;
+import moxie.MoxieOptions;
 import moxie.MoxieRule;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -36,6 +38,30 @@ public class DefaultStubsTest {
     @Mock
     private Object fuzzyBunny;
 
+    @Mock(MoxieOptions.PERMISSIVE)
+    private Primitives primitives;
+
+    public interface Primitives {
+        boolean getBoolean();
+        char getChar();
+        byte getByte();
+        short getShort();
+        int getInt();
+        long getLong();
+        float getFloat();
+        double getDouble();
+        Integer getBoxedInt();
+        String getString();
+    }
+
+    public static class HashesItselfWhenConstructed {
+        final int hashCodeWhenConstructed;
+
+        public HashesItselfWhenConstructed(String name) {
+            hashCodeWhenConstructed = hashCode();
+        }
+    }
+
     @Test
     public void testToString() {
          Assert.assertEquals("[mock object \"fuzzyBunny\"]", fuzzyBunny.toString());
@@ -46,9 +72,46 @@ public class DefaultStubsTest {
          Assert.assertEquals(System.identityHashCode(fuzzyBunny), fuzzyBunny.hashCode());
     }
 
+    @Test
+    public void testHashCode_repeated() {
+        int hashCode = fuzzyBunny.hashCode();
+        Assert.assertEquals(hashCode, fuzzyBunny.hashCode());
+    }
+
+    @Test
+    public void testHashCode_calledFromConstructor() {
+        HashesItselfWhenConstructed mock = Moxie.mock(HashesItselfWhenConstructed.class, new Class[]{String.class}, new Object[]{"name"});
+        Assert.assertEquals(System.identityHashCode(mock), mock.hashCode());
+        Assert.assertEquals(System.identityHashCode(mock), mock.hashCode());
+        Moxie.verify(mock);
+    }
+
     @Test
     public void testEquals() {
         Assert.assertTrue(fuzzyBunny.equals(fuzzyBunny));
         Assert.assertFalse(fuzzyBunny.equals(new Object()));
     }
+
+    @Test
+    public void testEquals_otherMock() {
+        Assert.assertFalse(fuzzyBunny.equals(primitives));
+        Assert.assertTrue(primitives.equals(primitives));
+    }
+
+    @Test
+    public void testDefaultValues() {
+        // twice over, as each return type's default is shared between calls and mocks
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(false, primitives.getBoolean());
+            Assert.assertEquals((char) 0, primitives.getChar());
+            Assert.assertEquals((byte) 0, primitives.getByte());
+            Assert.assertEquals((short) 0, primitives.getShort());
+            Assert.assertEquals(0, primitives.getInt());
+            Assert.assertEquals(0L, primitives.getLong());
+            Assert.assertEquals(0f, primitives.getFloat(), 0f);
+            Assert.assertEquals(0d, primitives.getDouble(), 0d);
+            Assert.assertEquals(Integer.valueOf(0), primitives.getBoxedInt());
+            Assert.assertNull(primitives.getString());
+        }
+    }
 }
@@ -25,6 +25,7 @@ package moxietests;
 import moxie.Group;
 import moxie.Moxie;
 import moxie.MoxieFailedVerificationError;
+import moxie.MoxieOptions;
 import moxie.MoxieSyntaxError;
 import moxie.MoxieUnexpectedInvocationError;
 import org.junit.Assert;
@@ -585,6 +586,93 @@ public class ExpectationTest {
         Moxie.expect(mock).andReturn("two").on().clear();
     }
 
+    @Test
+    public void sampledTracing_happyPath() {
+        List mock = Moxie.mock(List.class, MoxieOptions.SAMPLED_TRACE);
+        Moxie.expect(mock).andReturn("one").times(40).on().get(0);
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals("one", mock.get(0));
+        }
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void tracingAndSampledTracing_sadPath() {
+        Moxie.mock(List.class, MoxieOptions.TRACE, MoxieOptions.SAMPLED_TRACE);
+    }
+
+    @Test
+    public void noHistory_happyPath() {
+        List mock = Moxie.mock(List.class, MoxieOptions.NO_HISTORY);
+        Moxie.expect(mock).andReturn("one").times(3).on().get(0);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("one", mock.get(0));
+        }
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieFailedVerificationError.class)
+    public void noHistory_sadPath() {
+        List mock = Moxie.mock(List.class, MoxieOptions.NO_HISTORY);
+        Moxie.expect(mock).andReturn("one").times(3).on().get(0);
+        mock.get(0);
+        mock.get(0);
+        Moxie.verify(mock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void parallelVerification_happyPath() {
+        System.setProperty("moxie.parallelVerification", "true");
+        try {
+            List<Object> mocks = new ArrayList<Object>();
+            Group group = Moxie.group(MoxieOptions.ORDERED);
+            for (int i = 0; i < 200; i++) {
+                List mock = Moxie.mock(List.class, "mock" + i);
+                Moxie.expect(mock).inGroup(group).andReturn("value").on().get(i);
+                mocks.add(mock);
+            }
+            for (int i = 0; i < 200; i++) {
+                Assert.assertEquals("value", ((List) mocks.get(i)).get(i));
+            }
+            mocks.add(group);
+            Moxie.verify(mocks.toArray());
+        } finally {
+            System.clearProperty("moxie.parallelVerification");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void parallelVerification_sadPath() {
+        System.setProperty("moxie.parallelVerification", "true");
+        try {
+            List<Object> mocks = new ArrayList<Object>();
+            for (int i = 0; i < 200; i++) {
+                List mock = Moxie.mock(List.class, "mock" + i);
+                Moxie.expect(mock).andReturn("value").on().get(i);
+                mocks.add(mock);
+            }
+            for (int i = 0; i < 200; i++) {
+                if (i != 10 && i != 100 && i != 150) {
+                    ((List) mocks.get(i)).get(i);
+                }
+            }
+            try {
+                Moxie.verify(mocks.toArray());
+                Assert.fail();
+            } catch (MoxieFailedVerificationError e) {
+                Assert.assertTrue(e.getMessage().startsWith("3 mocks/groups failed verification"));
+                Assert.assertTrue(e.getMessage().contains("On \"mock10\""));
+                Assert.assertTrue(e.getMessage().contains("On \"mock100\""));
+                Assert.assertTrue(e.getMessage().contains("On \"mock150\""));
+            }
+        } finally {
+            System.clearProperty("moxie.parallelVerification");
+            Moxie.deactivate();
+        }
+    }
+
     @Test
     public void behaviorOnConsecutiveCalls_happyPath() {
         List mock = Moxie.mock(List.class);
@@ -618,4 +706,26 @@ public class ExpectationTest {
         Moxie.expect(mock).andConsecutivelyReturn("one", "two", "three").times(2).on().get(0);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void manyStubs_firstDeclaredMatchWins() {
+        List<String> mock = Moxie.mock(List.class);
+        for (int i = 0; i < 100; i++) {
+            Moxie.stub(mock).willReturn("stub" + i).on().get(i);
+        }
+        Moxie.stub(mock).willReturn("any").on().get(Moxie.anyInt());
+        Moxie.stub(mock).willReturn(42).on().size();
+
+        Assert.assertEquals("stub7", mock.get(7));
+        Assert.assertEquals("any", mock.get(100));
+        Assert.assertEquals(42, mock.size());
+
+        // stubs declared after the method was first called must still be found, after those declared earlier
+        Moxie.stub(mock).willReturn("late").on().get(101);
+        Moxie.stub(mock).willReturn("shadowed").on().get(3);
+        Assert.assertEquals("any", mock.get(101));
+        Assert.assertEquals("stub3", mock.get(3));
+        Moxie.verify(mock);
+    }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import moxie.Moxie;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class InheritableControlTest {
+
+    // Run inside a fresh copy of Moxie, since the moxie.inheritableControl property is only read when Moxie is loaded.
+    public static class ChildThreadVerifies implements Callable<String> {
+        @SuppressWarnings("unchecked")
+        public String call() throws Exception {
+            final List<String> mock = Moxie.mock(List.class);
+            Moxie.expect(mock).willReturn(3).on().size();
+            final Throwable[] error = new Throwable[1];
+            Thread child = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Assert.assertEquals(3, mock.size());
+                        Moxie.verify(mock);
+                    } catch (Throwable t) {
+                        error[0] = t;
+                    }
+                }
+            };
+            child.start();
+            child.join();
+            if (error[0] != null) {
+                return error[0].getClass().getName();
+            }
+            Moxie.checkNoActiveMocks();
+            return "shared";
+        }
+    }
+
+    @Test
+    public void inheritableControl_childThreadSharesParentControl() throws Exception {
+        Assert.assertEquals("shared", runWithInheritableControl("true"));
+    }
+
+    @Test
+    public void inheritableControl_childThreadHasItsOwnControlByDefault() throws Exception {
+        Assert.assertEquals(IllegalArgumentException.class.getName(), runWithInheritableControl(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String runWithInheritableControl(String value) throws Exception {
+        if (value != null) {
+            System.setProperty("moxie.inheritableControl", value);
+        }
+        try {
+            Callable<String> check = (Callable<String>) IsolatedClassLoaders.create().loadClass(ChildThreadVerifies.class.getName()).newInstance();
+            return check.call();
+        } finally {
+            System.clearProperty("moxie.inheritableControl");
+        }
+    }
+}
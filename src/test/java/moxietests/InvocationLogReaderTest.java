@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import moxie.InvocationLogReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class InvocationLogReaderTest {
+
+    @Test
+    public void read_happyPath() throws IOException {
+        InvocationLogReader reader = new InvocationLogReader(writeLog(
+                "{\"thread\":\"main\",\"mock\":\"List\",\"method\":\"get\",\"arguments\":[\"0\"],\"returned\":\"va\\\"lue\\n\\u00e9\"}\n" +
+                "{\"thread\":\"worker-1\",\"mock\":\"List\",\"method\":\"size\",\"returned\":null}\n" +
+                "\n" +
+                "{\"thread\":\"main\",\"mock\":\"List\",\"method\":\"clear\",\"threw\":\"java.lang.IllegalStateException: boom\"}\n" +
+                "{\"thread\":\"main\",\"mock\":\"Runnable\",\"method\":\"run\"}\n"));
+        try {
+            InvocationLogReader.Entry entry = reader.read();
+            Assert.assertEquals("main", entry.getThreadName());
+            Assert.assertEquals("List", entry.getMockName());
+            Assert.assertEquals("get", entry.getMethodName());
+            Assert.assertEquals(Arrays.asList("0"), entry.getArguments());
+            Assert.assertEquals("va\"lue\n\u00e9", entry.getValueReturned());
+            Assert.assertEquals("List.get(0), returned va\"lue\n\u00e9", entry.toString());
+
+            entry = reader.read();
+            Assert.assertEquals("worker-1", entry.getThreadName());
+            Assert.assertEquals(Collections.emptyList(), entry.getArguments());
+            Assert.assertEquals("List.size(), returned null", entry.toString());
+
+            entry = reader.read();
+            Assert.assertEquals("java.lang.IllegalStateException: boom", entry.getExceptionThrown());
+            Assert.assertEquals("List.clear(), threw java.lang.IllegalStateException: boom", entry.toString());
+
+            Assert.assertEquals("Runnable.run()", reader.read().toString());
+            Assert.assertNull(reader.read());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_sadPath() throws IOException {
+        InvocationLogReader reader = new InvocationLogReader(writeLog("{\"thread\":\"main\",\"mock\":\"Li"));
+        try {
+            reader.read();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static File writeLog(String contents) throws IOException {
+        File result = File.createTempFile("moxie", ".log");
+        result.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(result), "UTF-8");
+        try {
+            writer.write(contents);
+        } finally {
+            writer.close();
+        }
+        return result;
+    }
+}
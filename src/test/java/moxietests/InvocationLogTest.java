@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import moxie.InvocationLogReader;
+import moxie.Moxie;
+import moxie.MoxieOptions;
+import moxie.MoxieUncheckedInvocationError;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class InvocationLogTest {
+
+    // The classes below run inside a fresh copy of Moxie, since the moxie.invocationLog property is only read when
+    // Moxie is loaded.
+
+    public static class RoundTrip implements Callable<String> {
+        @SuppressWarnings("unchecked")
+        public String call() {
+            List<Object> mock = Moxie.mock(List.class, "List", MoxieOptions.PERMISSIVE);
+            Moxie.stub(mock).willReturn("va\"lue\né").on().get(0);
+            Moxie.stub(mock).willReturn(42).on().get(1);
+            Moxie.stub(mock).willThrow(new IllegalStateException("boom")).on().clear();
+
+            mock.get(0);
+            mock.get(1);
+            mock.get(2);
+            mock.add("a\tb");
+            mock.size();
+            mock.add(3, null);
+            try {
+                mock.clear();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // expected
+            }
+
+            // the error lists every invocation, described the way Moxie describes them everywhere else
+            String description = null;
+            try {
+                Moxie.checkNothingElseHappened(mock);
+            } catch (MoxieUncheckedInvocationError e) {
+                description = e.getMessage();
+            }
+            // verifying flushes the log, so everything is readable without waiting for the JVM to shut down
+            Moxie.verify(mock);
+            return description;
+        }
+    }
+
+    public static class BrokenToString implements Callable<String> {
+        @SuppressWarnings("unchecked")
+        public String call() {
+            Object broken = new Object() {
+                @Override
+                public String toString() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+            List<Object> mock = Moxie.mock(List.class, "List", MoxieOptions.PERMISSIVE);
+            Moxie.stub(mock).willReturn(broken).on().get(0);
+
+            Assert.assertFalse(mock.add(broken));
+            Assert.assertSame(broken, mock.get(0));
+            Moxie.verify(mock);
+            return String.format("%s@%x", broken.getClass().getName(), System.identityHashCode(broken));
+        }
+    }
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("moxie", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void roundTrip_entriesDescribedLikeInvocations() throws Exception {
+        assertLoggedAsDescribed(7, runWithInvocationLog(RoundTrip.class));
+    }
+
+    @Test
+    public void brokenToString_callsSucceedAndAreLogged() throws Exception {
+        String brokenDescription = runWithInvocationLog(BrokenToString.class);
+
+        List<InvocationLogReader.Entry> entries = readLog();
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("List.add(" + brokenDescription + "), returned false", entries.get(0).toString());
+        Assert.assertEquals("List.get(0), returned " + brokenDescription, entries.get(1).toString());
+    }
+
+    private void assertLoggedAsDescribed(int invocationCount, String description) throws IOException {
+        List<InvocationLogReader.Entry> entries = readLog();
+        Assert.assertEquals(invocationCount, entries.size());
+        for (InvocationLogReader.Entry entry : entries) {
+            Assert.assertEquals(Thread.currentThread().getName(), entry.getThreadName());
+            Assert.assertTrue(entry + " not in " + description, description.contains("    " + entry + "\n"));
+        }
+    }
+
+    private String runWithInvocationLog(Class<? extends Callable<String>> task) throws Exception {
+        System.setProperty("moxie.invocationLog", file.getPath());
+        try {
+            @SuppressWarnings("unchecked")
+            Callable<String> isolatedTask = (Callable<String>) IsolatedClassLoaders.create().loadClass(task.getName()).newInstance();
+            return isolatedTask.call();
+        } finally {
+            System.clearProperty("moxie.invocationLog");
+        }
+    }
+
+    private List<InvocationLogReader.Entry> readLog() throws IOException {
+        List<InvocationLogReader.Entry> result = new ArrayList<InvocationLogReader.Entry>();
+        InvocationLogReader reader = new InvocationLogReader(file);
+        try {
+            for (InvocationLogReader.Entry entry = reader.read(); entry != null; entry = reader.read()) {
+                result.add(entry);
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import moxie.Moxie;
+import moxie.MoxieOptions;
+import moxie.MoxieUncheckedInvocationError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class InvocationTracingTest {
+
+    // as documented on SAMPLED_TRACE
+    private static final int SAMPLING_INTERVAL = 16;
+
+    @Test
+    public void sampledTracing_onlyEveryIntervalthInvocationTraced() {
+        List mock = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.SAMPLED_TRACE);
+        String message = uncheckedInvocationMessage(mock, 3 * SAMPLING_INTERVAL + 1);
+        Assert.assertEquals(message, 4, countOccurrences(message, "method get called here"));
+    }
+
+    @Test
+    public void tracing_everyInvocationTraced() {
+        List mock = Moxie.mock(List.class, MoxieOptions.PERMISSIVE, MoxieOptions.TRACE);
+        String message = uncheckedInvocationMessage(mock, SAMPLING_INTERVAL + 1);
+        Assert.assertEquals(message, SAMPLING_INTERVAL + 1, countOccurrences(message, "method get called here"));
+        Assert.assertTrue(message, message.contains(InvocationTracingTest.class.getName() + ".uncheckedInvocationMessage("));
+    }
+
+    @Test
+    public void noTracing_noInvocationTraced() {
+        List mock = Moxie.mock(List.class, MoxieOptions.PERMISSIVE);
+        String message = uncheckedInvocationMessage(mock, SAMPLING_INTERVAL + 1);
+        Assert.assertEquals(message, 0, countOccurrences(message, "called here"));
+    }
+
+    private static String uncheckedInvocationMessage(List mock, int invocationCount) {
+        for (int i = 0; i < invocationCount; i++) {
+            mock.get(i);
+        }
+        try {
+            Moxie.checkNothingElseHappened(mock);
+            throw new AssertionError("no unchecked invocations found");
+        } catch (MoxieUncheckedInvocationError e) {
+            return e.getMessage();
+        } finally {
+            Moxie.verify(mock);
+        }
+    }
+
+    private static int countOccurrences(String s, String substring) {
+        int result = 0;
+        for (int i = s.indexOf(substring); i != -1; i = s.indexOf(substring, i + 1)) {
+            result++;
+        }
+        return result;
+    }
+}
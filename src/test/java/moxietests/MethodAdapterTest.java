@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.List;
+
+public class MethodAdapterTest {
+
+    public static class Unloadable {
+        public void method() {
+        }
+    }
+
+    @Test
+    public void forMethod_sameAdapterForEqualMethods() throws Exception {
+        Object adapter = forMethod(List.class.getMethod("size"));
+        Assert.assertSame(adapter, forMethod(List.class.getMethod("size")));
+        Assert.assertNotSame(adapter, forMethod(List.class.getMethod("isEmpty")));
+    }
+
+    @Test
+    public void forMethod_doesNotKeepClassLoadersAlive() throws Exception {
+        WeakReference<ClassLoader> loader = adaptUnloadableInIsolatedClassLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("class loader still reachable", loader.get());
+    }
+
+    private static WeakReference<ClassLoader> adaptUnloadableInIsolatedClassLoader() throws Exception {
+        ClassLoader loader = IsolatedClassLoaders.create();
+        Method method = loader.loadClass(Unloadable.class.getName()).getMethod("method");
+        Assert.assertSame(forMethod(method), forMethod(method));
+        return new WeakReference<ClassLoader>(loader);
+    }
+
+    // MethodAdapter is package-private
+    private static Object forMethod(Method method) throws Exception {
+        Method forMethod = Class.forName("moxie.MethodAdapter").getDeclaredMethod("forMethod", Method.class);
+        forMethod.setAccessible(true);
+        return forMethod.invoke(null, method);
+    }
+}
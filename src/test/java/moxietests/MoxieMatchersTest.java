@@ -22,6 +22,9 @@
 
 package moxietests;
 
+import moxie.DoubleCapture;
+import moxie.IntCapture;
+import moxie.LongCapture;
 import moxie.Moxie;
 import moxie.MoxieMatchers;
 import moxie.MoxieUnexpectedInvocationError;
@@ -31,6 +34,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -149,6 +153,27 @@ public class MoxieMatchersTest {
         mock.arrayObjectCall(new Object[]{"4","5"});
     }
 
+    @Test
+    public void testAryEq_largeArray_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        byte[] buffer = new byte[1 << 20];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (byte) i;
+        }
+        Moxie.expect(mock).will().arrayByteCall(Moxie.aryEq(buffer));
+        mock.arrayByteCall(buffer.clone());
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testAryEq_copiesArray_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        int[] array = new int[]{1, 2, 3};
+        Moxie.expect(mock).will().arrayIntCall(Moxie.aryEq(array));
+        array[2] = 4;
+        mock.arrayIntCall(array);
+    }
+
     @Test
     public void testMatchesRegexp_happyPath() {
         TestInterface mock = Moxie.mock(TestInterface.class);
@@ -194,6 +219,88 @@ public class MoxieMatchersTest {
         mock.stringCall("M*A*S*H");
     }
 
+    @Test
+    public void testMatchesRegexp_charSequence_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).times(2).will().objectCall(Moxie.matchesRegexp(Object.class, "^a.*z$"));
+        mock.objectCall(new StringBuilder("alcatraz"));
+        mock.objectCall(new StringBuilder("abuzz"));
+        Moxie.verify(mock);
+    }
+
+    @Test
+    public void testEqIgnoreWhiteSpace_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.eqIgnoreWhiteSpace(" the  quick\tbrown fox "));
+        mock.stringCall("The quick \n Brown   fox");
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testEqIgnoreWhiteSpace_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.eqIgnoreWhiteSpace("the quick brown fox"));
+        mock.stringCall("the quickbrown fox");
+    }
+
+    @Test
+    public void testHasSubstring_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.hasSubstring("cat"));
+        mock.stringCall("alcatraz");
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testHasSubstring_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.hasSubstring("cat"));
+        mock.stringCall("san quentin");
+    }
+
+    @Test
+    public void testStartsWithEndsWith_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.and(new String[]{Moxie.startsWith("alc"), Moxie.endsWith("raz")}));
+        mock.stringCall("alcatraz");
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testStartsWithEndsWith_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().stringCall(Moxie.and(new String[]{Moxie.startsWith("alc"), Moxie.endsWith("raz")}));
+        mock.stringCall("alcatrazz");
+    }
+
+    @Test
+    public void testStringMatchers_charSequence_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().objectCall(Moxie.hasSubstring("cat"));
+        Moxie.expect(mock).will().objectCall(Moxie.and(new String[]{Moxie.startsWith("san"), Moxie.endsWith("tin")}));
+        Moxie.expect(mock).will().objectCall(Moxie.eqIgnoreCase("mash"));
+        Moxie.expect(mock).will().objectCall(Moxie.eqIgnoreWhiteSpace("the quick brown fox"));
+        mock.objectCall(new StringBuilder("alcatraz"));
+        mock.objectCall(CharBuffer.wrap("san quentin"));
+        mock.objectCall(new StringBuilder("MASH"));
+        mock.objectCall(CharBuffer.wrap(" The  quick\tbrown fox "));
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testStringMatchers_charSequence_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().objectCall(Moxie.hasSubstring("cat"));
+        mock.objectCall(new StringBuilder("san quentin"));
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testStringMatchers_nonCharSequence_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().objectCall(Moxie.hasSubstring("cat"));
+        mock.objectCall(new char[]{'c', 'a', 't'});
+    }
+
     @Test
     public void testEqWithDelta_happyPath() {
         TestInterface mock = Moxie.mock(TestInterface.class);
@@ -216,6 +323,78 @@ public class MoxieMatchersTest {
         mock.objectCall("2");
     }
 
+    @Test
+    public void testAndRange_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).times(2).will().intCall(Moxie.and(new int[]{Moxie.gt(0), Moxie.lt(10)}));
+        mock.intCall(1);
+        mock.intCall(9);
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testAndRange_sadPath1() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().intCall(Moxie.and(new int[]{Moxie.gt(0), Moxie.lt(10)}));
+        mock.intCall(0);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testAndRange_sadPath2() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().intCall(Moxie.and(new int[]{Moxie.gt(0), Moxie.lt(10)}));
+        mock.intCall(10);
+    }
+
+    @Test
+    public void testNotRange_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).times(2).will().intObjectCall(Moxie.not(Moxie.leq(5)));
+        mock.intObjectCall(6);
+        mock.intObjectCall(null);
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testNotRange_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().intObjectCall(Moxie.not(Moxie.leq(5)));
+        mock.intObjectCall(5);
+    }
+
+    @Test
+    public void testOrSet_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).times(3).will().longCall(Moxie.or(new long[]{Moxie.eq(1L), Moxie.eq(3L), Moxie.eq(5L)}));
+        mock.longCall(5);
+        mock.longCall(1);
+        mock.longCall(3);
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testOrSet_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().longCall(Moxie.or(new long[]{Moxie.eq(1L), Moxie.eq(3L), Moxie.eq(5L)}));
+        mock.longCall(2);
+    }
+
+    @Test
+    public void testNestedAndOr_happyPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).times(2).will().doubleCall(Moxie.or(new double[]{Moxie.and(new double[]{Moxie.geq(0.0), Moxie.lt(1.0)}), Moxie.eq(2.5)}));
+        mock.doubleCall(0.0);
+        mock.doubleCall(2.5);
+        Moxie.verify(mock);
+    }
+
+    @Test(expected=MoxieUnexpectedInvocationError.class)
+    public void testNestedAndOr_sadPath() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        Moxie.expect(mock).will().doubleCall(Moxie.or(new double[]{Moxie.and(new double[]{Moxie.geq(0.0), Moxie.lt(1.0)}), Moxie.eq(2.5)}));
+        mock.doubleCall(1.0);
+    }
+
     @Test
     public void testCaptureTo_happyPath() {
         TestInterface mock = Moxie.mock(TestInterface.class);
@@ -319,6 +498,18 @@ public class MoxieMatchersTest {
         Assert.assertEquals(Collections.singletonList(3), list);
     }
 
+    @Test
+    public void testCaptureIntegerTo_happyPath3() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        IntCapture capture = new IntCapture(1);
+        Moxie.expect(mock).anyTimes().will().intCall(Moxie.captureIntTo(capture));
+        mock.intCall(3);
+        mock.intCall(1);
+        mock.intCall(4);
+        Assert.assertArrayEquals(new int[]{3, 1, 4}, capture.toArray());
+        Assert.assertEquals(4, capture.getLast());
+    }
+
 
     @Test
     public void testCaptureLongTo_happyPath1() {
@@ -338,6 +529,17 @@ public class MoxieMatchersTest {
         Assert.assertEquals(Collections.singletonList((long) 3), list);
     }
 
+    @Test
+    public void testCaptureLongTo_happyPath3() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        LongCapture capture = new LongCapture();
+        Moxie.expect(mock).anyTimes().will().longCall(Moxie.captureLongTo(capture));
+        mock.longCall(3L);
+        mock.longCall(1L);
+        Assert.assertArrayEquals(new long[]{3L, 1L}, capture.toArray());
+        Assert.assertEquals(1L, capture.getLast());
+    }
+
 
     @Test
     public void testCaptureFloatTo_happyPath1() {
@@ -376,6 +578,17 @@ public class MoxieMatchersTest {
         Assert.assertEquals(Collections.singletonList((double) 3), list);
     }
 
+    @Test
+    public void testCaptureDoubleTo_happyPath3() {
+        TestInterface mock = Moxie.mock(TestInterface.class);
+        DoubleCapture capture = new DoubleCapture();
+        Moxie.expect(mock).anyTimes().will().doubleCall(Moxie.captureDoubleTo(capture));
+        mock.doubleCall(3.0);
+        mock.doubleCall(1.5);
+        Assert.assertEquals(2, capture.size());
+        Assert.assertEquals(1.5, capture.get(1), 0.0);
+    }
+
     @Test
     public void testHasProperty_happyPath1() {
         TestInterface mock = Moxie.mock(TestInterface.class);
@@ -66,6 +66,17 @@ public class PartialMockTest {
         Assert.assertEquals("lenny carl", mock.partsAandB("moe"));
     }
 
+    @Test
+    public void partialMock_originalExceptionIsRethrown() {
+        PartiallyMocked mock = Moxie.mock(PartiallyMocked.class, MoxieOptions.PARTIAL, MoxieOptions.PERMISSIVE);
+        try {
+            mock.partG("oops");
+            Assert.fail("should have thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("TEN(oops)", e.getMessage());
+        }
+    }
+
     @Test
     public void reflectiveExpect_on2_happyPath() {
         PartiallyMocked mock = Moxie.mock(PartiallyMocked.class, MoxieOptions.PARTIAL, MoxieOptions.PERMISSIVE);
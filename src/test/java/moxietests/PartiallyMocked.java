@@ -69,4 +69,8 @@ public class PartiallyMocked {
     public final String partF(String s) {
         return "NINE("+s+")";
     }
+
+    public String partG(String s) {
+        throw new IllegalStateException("TEN("+s+")");
+    }
 }
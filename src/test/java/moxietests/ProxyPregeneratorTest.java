@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import moxie.Moxie;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProxyPregeneratorTest {
+
+    public static class Mocked {
+    }
+
+    public static class NotMocked {
+    }
+
+    public static class Unrelated {
+    }
+
+    // Only ever scanned by the pregenerator, never run.
+    public static class Fixture {
+        public Object mockWithConstructorArgs() {
+            return Moxie.mock(Mocked.class, new Class[]{NotMocked.class}, new Object[]{null});
+        }
+
+        public Object mockVariable(Class variable) {
+            String name = Unrelated.class.getName();
+            return Moxie.mock(variable, name);
+        }
+    }
+
+    @Test
+    public void pregeneratedProxies_happyPath() throws Exception {
+        File directory = File.createTempFile("moxie", ".tmp");
+        Assert.assertTrue(directory.delete() && directory.mkdir());
+        try {
+            File classesDirectory = new File(directory, "classes");
+            File outputDirectory = new File(directory, "output");
+            copyClassFile(Fixture.class, classesDirectory);
+
+            // ProxyClassCache is set up once per class loader, so each step gets a fresh copy of Moxie.
+            ClassLoader pregeneratorLoader = IsolatedClassLoaders.create();
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            Thread.currentThread().setContextClassLoader(pregeneratorLoader);
+            try {
+                pregeneratorLoader.loadClass("moxie.ProxyPregenerator").getMethod("main", String[].class)
+                        .invoke(null, new Object[]{new String[]{classesDirectory.getPath(), outputDirectory.getPath()}});
+            } finally {
+                Thread.currentThread().setContextClassLoader(contextClassLoader);
+                System.clearProperty("moxie.proxyClassCache");
+            }
+
+            List<String> proxyClassNames = readProxyClassNames(new File(outputDirectory, "META-INF/moxie/proxies"));
+            Assert.assertEquals(1, proxyClassNames.size());
+            Assert.assertTrue(proxyClassNames.get(0), proxyClassNames.get(0).startsWith(Mocked.class.getName()));
+
+            ClassLoader testLoader = IsolatedClassLoaders.create(outputDirectory);
+            Class moxie = testLoader.loadClass("moxie.Moxie");
+            // generate a proxy first, so one generated for Mocked now couldn't have the same name as the pregenerated one
+            moxie.getMethod("mock", Class.class).invoke(null, testLoader.loadClass(Unrelated.class.getName()));
+            Object mock = moxie.getMethod("mock", Class.class).invoke(null, testLoader.loadClass(Mocked.class.getName()));
+            Assert.assertEquals(proxyClassNames.get(0), mock.getClass().getName());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void copyClassFile(Class clazz, File classesDirectory) throws IOException {
+        String path = clazz.getName().replace('.', '/') + ".class";
+        File file = new File(classesDirectory, path);
+        Assert.assertTrue(file.getParentFile().mkdirs());
+        InputStream in = clazz.getResourceAsStream("/" + path);
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                byte[] buffer = new byte[8192];
+                for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static List<String> readProxyClassNames(File proxiesDirectory) throws IOException {
+        List<String> result = new ArrayList<String>();
+        BufferedReader index = new BufferedReader(new InputStreamReader(new FileInputStream(new File(proxiesDirectory, "index")), "US-ASCII"));
+        try {
+            for (String key = index.readLine(); key != null; key = index.readLine()) {
+                DataInputStream entry = new DataInputStream(new FileInputStream(new File(proxiesDirectory, key + ".proxy")));
+                try {
+                    entry.readInt();
+                    result.add(entry.readUTF());
+                } finally {
+                    entry.close();
+                }
+            }
+        } finally {
+            index.close();
+        }
+        return result;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -23,8 +23,10 @@
 package moxietests;
 
 import moxie.Moxie;
+import moxie.MoxieOptions;
 import moxie.MoxieRule;
 import moxie.Spy;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 
@@ -34,6 +36,10 @@ public class SpyTest {
         public void kerblam() {
             throw new Error("this method blows up");
         }
+
+        public void denied(IllegalAccessException e) throws IllegalAccessException {
+            throw e;
+        }
     }
 
     @Rule
@@ -42,6 +48,9 @@ public class SpyTest {
     @Spy
     private ClassToSpyOn spy = new ClassToSpyOn();
 
+    @Spy(MoxieOptions.PERMISSIVE)
+    private ClassToSpyOn permissiveSpy = new ClassToSpyOn();
+
     @Test
     public void testWeCanSuppressUnderlyingMethods() {
         Moxie.expect(spy).times(2).andDoNothing().on().kerblam();
@@ -50,4 +59,16 @@ public class SpyTest {
         spy.kerblam();
     }
 
+    @Test
+    public void testIllegalAccessExceptionFromUnderlyingMethodPassedThrough() throws Exception {
+        IllegalAccessException e = new IllegalAccessException("denied");
+        try {
+            permissiveSpy.denied(e);
+            Assert.fail();
+        } catch (IllegalAccessException thrown) {
+            Assert.assertSame(e, thrown);
+        }
+        Moxie.check(permissiveSpy).got().denied(e);
+    }
+
 }
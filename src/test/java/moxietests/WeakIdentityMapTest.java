@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010-2012 Moxie contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package moxietests;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class WeakIdentityMapTest {
+
+    @Test
+    public void get_duringIterationWithCollectedKeys() throws Exception {
+        Map<Object, Object> map = newWeakIdentityMap();
+        List<Object> liveKeys = new ArrayList<Object>();
+        for (int i = 0; i < 1000; i++) {
+            Object key = new Object();
+            map.put(key, i);
+            if (i % 2 == 0) {
+                liveKeys.add(key);
+            }
+        }
+        collectGarbage();
+
+        int iterated = 0;
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            Assert.assertSame(entry.getValue(), map.get(entry.getKey()));
+            Assert.assertNull(map.get(new Object()));
+            iterated++;
+        }
+        Assert.assertEquals(liveKeys.size(), iterated);
+    }
+
+    @Test
+    public void get_duringResize() throws Exception {
+        Map<Object, Object> map = newWeakIdentityMap();
+        List<Object> keys = new ArrayList<Object>();
+        // the default table holds 12 entries before it starts growing, and takes several more updates to finish
+        for (int i = 0; i < 14; i++) {
+            Object key = new Object();
+            map.put(key, i);
+            keys.add(key);
+            for (int j = 0; j <= i; j++) {
+                Assert.assertEquals(j, map.get(keys.get(j)));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newWeakIdentityMap() throws Exception {
+        // package-private, as nothing outside Moxie has any business using it
+        Constructor constructor = Class.forName("moxie.WeakIdentityMap").getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return (Map<Object, Object>) constructor.newInstance();
+    }
+
+    private static void collectGarbage() throws InterruptedException {
+        WeakReference<Object> canary = new WeakReference<Object>(new Object());
+        for (int i = 0; i < 50 && canary.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("garbage collection didn't run", canary.get());
+    }
+}